@@ -24,12 +24,15 @@
 
 package reborncore.client;
 
+import io.netty.buffer.Unpooled;
 import net.fabricmc.fabric.api.client.networking.v1.ClientPlayNetworking;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.client.MinecraftClient;
 import net.minecraft.client.gui.screen.Screen;
 import net.minecraft.client.gui.screen.ingame.HandledScreen;
+import net.minecraft.network.RegistryByteBuf;
 import net.minecraft.screen.ScreenHandler;
+import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -37,6 +40,8 @@ import reborncore.RebornCore;
 import reborncore.common.blockentity.FluidConfiguration;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.blockentity.SlotConfiguration;
+import reborncore.common.blockentity.SyncedFields;
+import reborncore.common.network.clientbound.BlockEntityFieldsPayload;
 import reborncore.common.network.clientbound.ChunkSyncPayload;
 import reborncore.common.network.clientbound.CustomDescriptionPayload;
 import reborncore.common.network.clientbound.FluidConfigSyncPayload;
@@ -59,6 +64,21 @@ public class ClientBoundPacketHandlers {
 			}
 		});
 
+		ClientPlayNetworking.registerGlobalReceiver(BlockEntityFieldsPayload.ID, (payload, context) -> {
+			World world = MinecraftClient.getInstance().world;
+			RegistryByteBuf buf = new RegistryByteBuf(Unpooled.wrappedBuffer(payload.data()), world.getRegistryManager());
+			while (buf.isReadable()) {
+				BlockPos pos = BlockPos.fromLong(buf.readLong());
+				int length = buf.readVarInt();
+				int end = buf.readerIndex() + length;
+				if (world.isChunkLoaded(pos) && world.getBlockEntity(pos) instanceof SyncedFields.Provider provider) {
+					provider.getSyncedFields().read(buf);
+				}
+				// Skips the fields of block entities the client doesn't know
+				buf.readerIndex(end);
+			}
+		});
+
 		ClientPlayNetworking.registerGlobalReceiver(FluidConfigSyncPayload.ID, (payload, context) -> {
 			FluidConfiguration fluidConfiguration = payload.fluidConfiguration();
 			if (!MinecraftClient.getInstance().world.isChunkLoaded(payload.pos())) {
@@ -91,7 +111,8 @@ public class ClientBoundPacketHandlers {
 			Screen gui = MinecraftClient.getInstance().currentScreen;
 			if (gui instanceof HandledScreen handledScreen) {
 				ScreenHandler screenHandler = handledScreen.getScreenHandler();
-				if (screenHandler instanceof BuiltScreenHandler builtScreenHandler) {
+				// Updates for a screen that was already closed are dropped
+				if (screenHandler instanceof BuiltScreenHandler builtScreenHandler && screenHandler.syncId == payload.syncId()) {
 					builtScreenHandler.applyScreenHandlerData(payload.data());
 				}
 			}
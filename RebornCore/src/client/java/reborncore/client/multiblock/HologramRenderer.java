@@ -51,6 +51,8 @@ public
 record HologramRenderer(World view, MatrixStack matrix, VertexConsumerProvider vertexConsumerProvider,
 						float scale) implements MultiblockWriter {
 	private static final BlockPos OUT_OF_WORLD_POS = new BlockPos(0, 260, 0); // Bad hack; disables lighting
+	// Only used on the render thread, the block renderer seeds it for every block
+	private static final Random RANDOM = Random.create();
 
 	@Override
 	public MultiblockWriter add(int x, int y, int z, BiPredicate<BlockView, BlockPos> predicate, BlockState state) {
@@ -67,7 +69,7 @@ record HologramRenderer(World view, MatrixStack matrix, VertexConsumerProvider v
 		} else {
 			matrix.translate(-0.5, -0.5, -0.5);
 			VertexConsumer consumer = vertexConsumerProvider.getBuffer(RenderLayers.getBlockLayer(state));
-			blockRenderManager.renderBlock(state, OUT_OF_WORLD_POS, view, matrix, consumer, false, Random.create());
+			blockRenderManager.renderBlock(state, OUT_OF_WORLD_POS, view, matrix, consumer, false, RANDOM);
 		}
 
 		matrix.pop();
@@ -38,7 +38,7 @@ public class MultiblockRenderer<T extends MachineBaseBlockEntity> implements Blo
 	@Override
 	public void render(T blockEntity, float partialTicks, MatrixStack matrixStack, VertexConsumerProvider vertexConsumerProvider, int light, int overlay) {
 		if (blockEntity.renderMultiblock) {
-			blockEntity.writeMultiblock(new HologramRenderer(blockEntity.getWorld(), matrixStack, vertexConsumerProvider, 0.4F).rotate(blockEntity.getFacing().getOpposite()));
+			blockEntity.getMultiblockShape().write(new HologramRenderer(blockEntity.getWorld(), matrixStack, vertexConsumerProvider, 0.4F), blockEntity.getFacing().getOpposite());
 		}
 	}
 
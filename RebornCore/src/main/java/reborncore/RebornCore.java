@@ -28,6 +28,7 @@ import net.fabricmc.api.EnvType;
 import net.fabricmc.api.ModInitializer;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerBlockEntityEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerEntityEvents;
+import net.fabricmc.fabric.api.event.lifecycle.v1.ServerLifecycleEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerWorldEvents;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidStorage;
@@ -46,16 +47,21 @@ import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.blocks.BlockWrenchEventHandler;
 import reborncore.common.chunkloading.ChunkLoaderManager;
 import reborncore.common.config.Configuration;
+import reborncore.common.crafting.RecipeUtils;
+import reborncore.common.explosion.ExplosionScheduler;
 import reborncore.common.misc.ModSounds;
 import reborncore.common.misc.RebornCoreTags;
 import reborncore.common.multiblock.MultiblockRegistry;
+import reborncore.common.network.FieldSyncManager;
 import reborncore.common.network.Packets;
 import reborncore.common.network.ServerBoundPackets;
 import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.recipes.PaddedShapedRecipe;
 import reborncore.common.screen.ServerPlayerEntityScreenHandlerHelper;
+import reborncore.common.util.BlockChangeListeners;
 import reborncore.common.util.CalenderUtils;
 import reborncore.common.util.GenericWrenchHelper;
+import reborncore.common.util.TickProfiler;
 import team.reborn.energy.api.EnergyStorage;
 
 import java.util.Locale;
@@ -115,8 +121,23 @@ public class RebornCore implements ModInitializer {
 			if (blockEntity instanceof UnloadHandler) ((UnloadHandler) blockEntity).onUnload();
 		});
 
+		ServerLifecycleEvents.END_DATA_PACK_RELOAD.register((server, resourceManager, success) -> RecipeUtils.invalidateCaches());
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> RecipeUtils.invalidateCaches());
+
 		ServerWorldEvents.LOAD.register((server, world) -> ChunkLoaderManager.get(world).onServerWorldLoad(world));
+		ServerWorldEvents.UNLOAD.register((server, world) -> BlockChangeListeners.onWorldUnload(world));
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> BlockChangeListeners.clear());
+		ServerTickEvents.END_WORLD_TICK.register(FieldSyncManager::flush);
+		ServerWorldEvents.UNLOAD.register((server, world) -> FieldSyncManager.onWorldUnload(world));
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> FieldSyncManager.clear());
+		ServerLifecycleEvents.SERVER_STOPPED.register(server -> {
+			TickProfiler.stop();
+			TickProfiler.reset();
+		});
 		ServerTickEvents.START_WORLD_TICK.register(world -> ChunkLoaderManager.get(world).onServerWorldTick(world));
+		ServerTickEvents.END_WORLD_TICK.register(ExplosionScheduler::tick);
+		ServerWorldEvents.UNLOAD.register((server, world) -> ExplosionScheduler.onWorldUnload(world));
+		ServerLifecycleEvents.SERVER_STOPPING.register(server -> ExplosionScheduler.finishAll());
 
 		ServerEntityEvents.EQUIPMENT_CHANGE.register((livingEntity, equipmentSlot, previousStack, currentStack) -> {
 			if (livingEntity instanceof PlayerEntity playerEntity
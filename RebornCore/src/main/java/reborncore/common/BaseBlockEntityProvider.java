@@ -38,7 +38,10 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.util.collection.DefaultedList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
+import net.minecraft.world.block.WireOrientation;
 import org.jetbrains.annotations.Nullable;
+import reborncore.common.blockentity.MachineBaseBlockEntity;
+import reborncore.common.util.TickProfiler;
 
 import java.util.Optional;
 
@@ -73,10 +76,20 @@ public abstract class BaseBlockEntityProvider extends Block implements BlockEnti
 		nbtComponent.applyToBlockEntity(world.getBlockEntity(pos), world.getRegistryManager());
 	}
 
+	@Override
+	protected void neighborUpdate(BlockState state, World world, BlockPos pos, Block sourceBlock, @Nullable WireOrientation wireOrientation, boolean notify) {
+		super.neighborUpdate(state, world, pos, sourceBlock, wireOrientation, notify);
+		if (!world.isClient && world.getBlockEntity(pos) instanceof MachineBaseBlockEntity machine) {
+			machine.onNeighborUpdate();
+		}
+	}
+
 	public <T extends BlockEntity> BlockEntityTicker<T> getTicker(World world, BlockState state, BlockEntityType<T> type) {
 		return (world1, pos, state1, blockEntity) -> {
 			if (blockEntity instanceof BlockEntityTicker) {
+				long begin = TickProfiler.begin(world1);
 				((BlockEntityTicker) blockEntity).tick(world1, pos, state1, blockEntity);
+				TickProfiler.end(begin, TickProfiler.Section.MACHINE, blockEntity.getType(), world1, pos);
 			}
 		};
 	}
@@ -46,6 +46,7 @@ import net.minecraft.server.world.ServerChunkManager;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.world.chunk.ChunkStatus;
+import reborncore.common.crafting.RecipeUtils;
 import reborncore.common.network.NetworkManager;
 import reborncore.common.network.clientbound.QueueItemStacksPayload;
 
@@ -97,6 +98,12 @@ public class RebornCoreCommands {
 							)
 					)
 
+					.then(
+						literal("recipecache")
+							.requires(source -> source.hasPermissionLevel(3))
+							.executes(RebornCoreCommands::recipeCache)
+					)
+
 					.then(
 						literal("render")
 							.then(
@@ -153,6 +160,12 @@ public class RebornCoreCommands {
 		return Command.SINGLE_SUCCESS;
 	}
 
+	private static int recipeCache(CommandContext<ServerCommandSource> ctx) {
+		ctx.getSource().sendFeedback(() -> Text.literal(String.format("Recipe cache: %d hits, %d rebuilds", RecipeUtils.getCacheHits(), RecipeUtils.getCacheRebuilds())), false);
+
+		return Command.SINGLE_SUCCESS;
+	}
+
 	private static int renderMod(CommandContext<ServerCommandSource> ctx) {
 		String modid = StringArgumentType.getString(ctx, "modid");
 
@@ -29,4 +29,7 @@ import reborncore.common.config.Config;
 public class RebornCoreConfig {
 	@Config(config = "misc", key = "Selected Energy system", comment = "Possible values are: E (was FE, EU)")
 	public static String selectedSystem = "E";
+
+	@Config(config = "misc", key = "Adaptive fluid transfer", comment = "When enabled machines move as much fluid as the neighbour accepts in one transfer, instead of a quarter bucket")
+	public static boolean adaptiveFluidTransfer = true;
 }
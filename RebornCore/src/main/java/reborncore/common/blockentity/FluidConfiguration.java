@@ -25,6 +25,7 @@
 package reborncore.common.blockentity;
 
 import io.netty.buffer.ByteBuf;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidStorage;
 import net.fabricmc.fabric.api.transfer.v1.fluid.FluidVariant;
 import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
@@ -32,6 +33,7 @@ import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import org.jetbrains.annotations.NotNull;
@@ -53,8 +55,19 @@ public class FluidConfiguration implements NBTSerializable {
 		FluidConfiguration::new
 	);
 
+	private static final Direction[] DIRECTIONS = Direction.values();
+
 	Map<Direction, FluidConfig> sideMap;
 	boolean input, output;
+	/**
+	 * Adjacent caches, used to quickly query the fluid storages next to the machine.
+	 */
+	@SuppressWarnings("unchecked")
+	private final BlockApiCache<Storage<FluidVariant>, Direction>[] adjacentCaches = new BlockApiCache[6];
+	/**
+	 * Bitmask of sides that had no fluid storage, these are skipped until the next neighbor update.
+	 */
+	private int emptySides = 0;
 
 	public FluidConfiguration() {
 		sideMap = new HashMap<>();
@@ -99,27 +112,56 @@ public class FluidConfiguration implements NBTSerializable {
 		if (machineBase.getTank() == null || machineBase.getWorld().getTime() % machineBase.slotTransferSpeed() != 0) {
 			return;
 		}
-		for (Direction facing : Direction.values()) {
+		// Adaptive transfers move as much as the other side accepts in a single transaction
+		long maxAmount = machineBase.adaptiveFluidTransfer() ? Long.MAX_VALUE : machineBase.fluidTransferAmount().getRawValue();
+		for (Direction facing : DIRECTIONS) {
 			FluidConfig fluidConfig = getSideDetail(facing);
 			if (fluidConfig == null || !fluidConfig.getIoConfig().isEnabled()) {
 				continue;
 			}
+			boolean insert = autoInput() && fluidConfig.getIoConfig().isInsert();
+			boolean extract = autoOutput() && fluidConfig.getIoConfig().isExtract();
+			if (!insert && !extract) {
+				continue;
+			}
 
 			@Nullable
 			Storage<FluidVariant> tank = getTank(machineBase, facing);
-			if (autoInput() && fluidConfig.getIoConfig().isInsert()) {
-				StorageUtil.move(tank, machineBase.getTank(), fv -> true, machineBase.fluidTransferAmount().getRawValue(), null);
+			if (tank == null) {
+				continue;
+			}
+			if (insert) {
+				StorageUtil.move(tank, machineBase.getTank(), fv -> true, maxAmount, null);
 			}
-			if (autoOutput() && fluidConfig.getIoConfig().isExtract()) {
-				StorageUtil.move(machineBase.getTank(), tank, fv -> true, machineBase.fluidTransferAmount().getRawValue(), null);
+			if (extract) {
+				StorageUtil.move(machineBase.getTank(), tank, fv -> true, maxAmount, null);
 			}
 		}
 	}
 
 	@Nullable
 	private Storage<FluidVariant> getTank(MachineBaseBlockEntity machine, Direction facing) {
+		int sideBit = 1 << facing.ordinal();
+		if ((emptySides & sideBit) != 0) {
+			return null;
+		}
 		BlockPos pos = machine.getPos().offset(facing);
-		return FluidStorage.SIDED.find(machine.getWorld(), pos, facing.getOpposite());
+		if (adjacentCaches[facing.ordinal()] == null) {
+			adjacentCaches[facing.ordinal()] = BlockApiCache.create(FluidStorage.SIDED, (ServerWorld) machine.getWorld(), pos);
+		}
+		Storage<FluidVariant> storage = adjacentCaches[facing.ordinal()].find(facing.getOpposite());
+		// Loading a neighbouring chunk does not cause a neighbor update, so only remember sides that are loaded.
+		if (storage == null && machine.getWorld().isChunkLoaded(pos)) {
+			emptySides |= sideBit;
+		}
+		return storage;
+	}
+
+	/**
+	 * Called by the machine when an adjacent block changes, checks all sides for fluid storages again.
+	 */
+	public void onNeighborUpdate() {
+		emptySides = 0;
 	}
 
 	public boolean autoInput() {
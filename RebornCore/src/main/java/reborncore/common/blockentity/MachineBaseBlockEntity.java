@@ -39,8 +39,10 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtOps;
 import net.minecraft.network.packet.s2c.play.BlockEntityUpdateS2CPacket;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
@@ -51,24 +53,28 @@ import reborncore.api.IListInfoProvider;
 import reborncore.api.blockentity.IUpgrade;
 import reborncore.api.blockentity.IUpgradeable;
 import reborncore.api.blockentity.InventoryProvider;
+import reborncore.api.blockentity.UnloadHandler;
 import reborncore.api.recipe.IRecipeCrafterProvider;
+import reborncore.common.RebornCoreConfig;
 import reborncore.common.blocks.BlockMachineBase;
 import reborncore.common.fluid.FluidValue;
+import reborncore.common.network.FieldSyncManager;
 import reborncore.common.network.NetworkManager;
 import reborncore.common.network.clientbound.CustomDescriptionPayload;
 import reborncore.common.recipes.IUpgradeHandler;
 import reborncore.common.recipes.RecipeCrafter;
+import reborncore.common.screen.Syncable;
+import reborncore.common.util.BlockChangeListeners;
 import reborncore.common.util.RebornInventory;
 import reborncore.common.util.Tank;
 
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
 
 /**
  * Created by modmuss50 on 04/11/2016.
  */
-public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTicker<MachineBaseBlockEntity>, IUpgradeable, IUpgradeHandler, IListInfoProvider, Inventory, SidedInventory, RedstoneConfigurable {
+public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTicker<MachineBaseBlockEntity>, IUpgradeable, IUpgradeHandler, IListInfoProvider, Inventory, SidedInventory, RedstoneConfigurable, UnloadHandler, SyncedFields.Provider {
 
 	public RebornInventory<MachineBaseBlockEntity> upgradeInventory = new RebornInventory<>(getUpgradeSlotCount(), "upgrades", 1, this, (slotID, stack, face, direction, blockEntity) -> true);
 	private SlotConfiguration slotConfiguration;
@@ -80,6 +86,29 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 	private final static int syncCoolDown = 20;
 	private boolean markSync = false;
 	private int tickTime = 0;
+	// Sleeping machines still run a full tick every so often, in case something changed without waking them.
+	private final static int sleepRecheckInterval = 100;
+	/**
+	 * Set when the machine had nothing to do on its last tick, see {@link #canSleep()}.
+	 */
+	private boolean sleeping = false;
+	private boolean wakeRequested = false;
+	/**
+	 * Set when the upgrades need to be applied again, see {@link #applyUpgrades()}.
+	 */
+	private boolean upgradesChanged = true;
+	/**
+	 * Cached result of {@link #isMultiblockValid()}, only used on the server while {@link #multiblockListener}
+	 * is registered and no block changed inside the multiblock.
+	 */
+	private boolean multiblockValid = false;
+	private boolean multiblockChanged = true;
+	@Nullable
+	private BlockChangeListeners.Registration multiblockListener;
+	@Nullable
+	private MultiblockShape multiblockShape;
+	@Nullable
+	private SyncedFields syncedFields;
 
 	public static double SPEED_CAP = 0.99;
 
@@ -121,10 +150,85 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		redstoneElements = RedstoneConfiguration.getValidElements(this);
 	}
 
+	/**
+	 * Checks the blocks written by {@link #writeMultiblock(MultiblockWriter)}. On the server the result is cached
+	 * until a block inside the multiblock or the facing of the machine changes.
+	 *
+	 * @return {@code boolean} True if the multiblock is complete
+	 */
 	public boolean isMultiblockValid() {
-		MultiblockWriter.MultiblockVerifier verifier = new MultiblockWriter.MultiblockVerifier(getPos(), getWorld());
-		writeMultiblock(verifier.rotate(getFacing().getOpposite()));
-		return verifier.isValid();
+		if (!multiblockChanged && multiblockListener != null) {
+			return multiblockValid;
+		}
+		MultiblockShape shape = getMultiblockShape();
+		Direction direction = getFacing().getOpposite();
+		boolean valid = shape.test(world, pos, direction);
+		BlockBox bounds = shape.getBounds(pos, direction);
+		if (world instanceof ServerWorld serverWorld && !isRemoved() && bounds != null) {
+			// The machine itself is part of the box, so turning it invalidates the cached result
+			BlockBox box = new BlockBox(
+				Math.min(bounds.getMinX(), pos.getX()), Math.min(bounds.getMinY(), pos.getY()), Math.min(bounds.getMinZ(), pos.getZ()),
+				Math.max(bounds.getMaxX(), pos.getX()), Math.max(bounds.getMaxY(), pos.getY()), Math.max(bounds.getMaxZ(), pos.getZ())
+			);
+			if (multiblockListener == null || !multiblockListener.getBox().equals(box)) {
+				removeMultiblockListener();
+				multiblockListener = BlockChangeListeners.register(serverWorld, box, this::onMultiblockBlockChanged);
+			}
+			multiblockValid = valid;
+			multiblockChanged = false;
+		}
+		return valid;
+	}
+
+	/**
+	 * Returns the compiled form of {@link #writeMultiblock(MultiblockWriter)}, which is kept until
+	 * {@link #invalidateMultiblock()} is called.
+	 *
+	 * @return {@link MultiblockShape} The multiblock of this machine
+	 */
+	public MultiblockShape getMultiblockShape() {
+		if (multiblockShape == null) {
+			multiblockShape = createMultiblockShape();
+		}
+		return multiblockShape;
+	}
+
+	/**
+	 * Override this to share shapes between machines, the default compiles the shape for every machine.
+	 *
+	 * @return {@link MultiblockShape} A new or shared shape
+	 */
+	protected MultiblockShape createMultiblockShape() {
+		return MultiblockShape.compile(this::writeMultiblock);
+	}
+
+	/**
+	 * Makes the next {@link #isMultiblockValid()} check the blocks again. Call this when the shape written by
+	 * {@link #writeMultiblock(MultiblockWriter)} changes.
+	 */
+	public void invalidateMultiblock() {
+		multiblockShape = null;
+		multiblockChanged = true;
+	}
+
+	private void onMultiblockBlockChanged(BlockPos changedPos, BlockState oldState, BlockState newState) {
+		// Ignore the machine turning on and off, only the facing matters
+		if (changedPos.equals(pos) && oldState.getBlock() == newState.getBlock()
+			&& newState.getBlock() instanceof BlockMachineBase machineBlock
+			&& machineBlock.getFacing(oldState) == machineBlock.getFacing(newState)) {
+			return;
+		}
+		multiblockChanged = true;
+		// A machine waiting for its multiblock may be asleep, see canSleep
+		wake();
+	}
+
+	private void removeMultiblockListener() {
+		if (multiblockListener != null) {
+			multiblockListener.remove();
+			multiblockListener = null;
+		}
+		multiblockChanged = true;
 	}
 
 	private void syncIfNecessary(){
@@ -137,10 +241,57 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 
 	public void writeMultiblock(MultiblockWriter writer) {}
 
+	@Override
+	public void markRemoved() {
+		super.markRemoved();
+		removeMultiblockListener();
+	}
+
+	// UnloadHandler
+	@Override
+	public void onUnload() {
+		removeMultiblockListener();
+	}
+
+	/**
+	 * Sends the whole block entity to the tracking players, see {@link #syncFields()} for a cheaper alternative
+	 */
 	public void syncWithAll() {
 		this.markSync = true;
 	}
 
+	/**
+	 * Sends the fields declared by {@link #configureFieldSync} which changed to the tracking players at the end of
+	 * the tick. Falls back to {@link #syncWithAll()} if the machine doesn't declare any fields.
+	 */
+	public void syncFields() {
+		if (world == null || world.isClient) {
+			return;
+		}
+		if (getSyncedFields().isEmpty()) {
+			syncWithAll();
+			return;
+		}
+		FieldSyncManager.queue(this);
+	}
+
+	/**
+	 * Declares the fields sent by {@link #syncFields()}, usually what the client renders. Called once on each side.
+	 *
+	 * @param context {@link Syncable.Context} Context to declare the fields with
+	 */
+	protected void configureFieldSync(Syncable.Context context) {
+	}
+
+	// SyncedFields.Provider
+	@Override
+	public SyncedFields getSyncedFields() {
+		if (syncedFields == null) {
+			syncedFields = new SyncedFields(this::configureFieldSync);
+		}
+		return syncedFields;
+	}
+
 	public void onLoad() {
 		if (slotConfiguration == null) {
 			if (getOptionalInventory().isPresent()) {
@@ -170,24 +321,19 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 
 	@Override
 	public void tick(World world, BlockPos pos, BlockState state, MachineBaseBlockEntity blockEntity) {
-		if (tickTime == 0) {
-			onLoad();
+		countTick();
+		if (sleeping && !wakeRequested && tickTime % sleepRecheckInterval != 0 && world != null && !world.isClient) {
+			syncIfNecessary();
+			return;
 		}
-		tickTime++;
+		wakeRequested = false;
 		@Nullable
 		RecipeCrafter crafter = null;
 		if (getOptionalCrafter().isPresent()) {
 			crafter = getOptionalCrafter().get();
 		}
-		if (canBeUpgraded()) {
-			resetUpgrades();
-			for (int i = 0; i < getUpgradeSlotCount(); i++) {
-				ItemStack stack = getUpgradeInventory().getStack(i);
-				if (!stack.isEmpty() && stack.getItem() instanceof IUpgrade) {
-					((IUpgrade) stack.getItem()).process(this, this, stack);
-				}
-			}
-			afterUpgradesApplication();
+		if (canBeUpgraded() && (upgradesChanged || upgradeInventory.hasChanged())) {
+			applyUpgrades();
 		}
 		if (world == null || world.isClient) {
 			return;
@@ -201,9 +347,101 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		if (fluidConfiguration != null && isActive(RedstoneConfiguration.Element.FLUID_IO)) {
 			fluidConfiguration.update(this);
 		}
+		sleeping = !wakeRequested && canSleep();
 		syncIfNecessary();
 	}
 
+	/**
+	 * The part of {@link #tick} every machine needs, for machines whose work is done by another block entity.
+	 * Loads the machine on its first tick and sends pending syncs.
+	 */
+	protected void tickBookkeeping() {
+		countTick();
+		if (world != null && !world.isClient) {
+			syncIfNecessary();
+		}
+	}
+
+	private void countTick() {
+		if (tickTime == 0) {
+			onLoad();
+		}
+		tickTime++;
+	}
+
+	/**
+	 * <p>
+	 *  Checks if the machine has nothing to do until something changes. A sleeping machine skips upgrades,
+	 *  recipe processing and item and fluid IO until {@link #wake()} is called.
+	 * </p>
+	 *
+	 * <p>
+	 *  Machines are woken by inventory changes, energy insertion, neighbor updates and configuration changes.
+	 *  Override this to keep a machine awake when it depends on anything else.
+	 * </p>
+	 *
+	 * @return {@code boolean} True if the machine can sleep
+	 */
+	protected boolean canSleep() {
+		Optional<RecipeCrafter> crafter = getOptionalCrafter();
+		if (crafter.isPresent() && crafter.get().currentRecipe != null) {
+			return false;
+		}
+		// Tanks can be filled by pipes without the machine knowing about it
+		if (getTank() != null) {
+			return false;
+		}
+		return slotConfiguration == null || !slotConfiguration.hasPendingIO();
+	}
+
+	/**
+	 * Makes a sleeping machine tick again, see {@link #canSleep()}
+	 */
+	public void wake() {
+		sleeping = false;
+		wakeRequested = true;
+	}
+
+	public boolean isSleeping() {
+		return sleeping;
+	}
+
+	/**
+	 * Called when an adjacent block changes, this includes redstone changes.
+	 */
+	public void onNeighborUpdate() {
+		// Upgrades can depend on the redstone state, for example through the max input
+		markUpgradesChanged();
+		if (fluidConfiguration != null) {
+			fluidConfiguration.onNeighborUpdate();
+		}
+		wake();
+	}
+
+	/**
+	 * Resets and re-applies all upgrades. The resulting multipliers are kept until the upgrade inventory
+	 * changes or {@link #markUpgradesChanged()} is called.
+	 */
+	public void applyUpgrades() {
+		upgradesChanged = false;
+		upgradeInventory.resetHasChanged();
+		resetUpgrades();
+		for (int i = 0; i < getUpgradeSlotCount(); i++) {
+			ItemStack stack = getUpgradeInventory().getStack(i);
+			if (!stack.isEmpty() && stack.getItem() instanceof IUpgrade) {
+				((IUpgrade) stack.getItem()).process(this, this, stack);
+			}
+		}
+		afterUpgradesApplication();
+	}
+
+	/**
+	 * Applies the upgrades again on the next tick, for when their effect depends on more than the upgrade items.
+	 */
+	public void markUpgradesChanged() {
+		upgradesChanged = true;
+	}
+
 	public void resetUpgrades() {
 		resetPowerMultiplier();
 		resetSpeedMultiplier();
@@ -410,6 +648,11 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		return FluidValue.BUCKET_QUARTER;
 	}
 
+	//If true the fluid config moves as much fluid as the other side accepts, instead of fluidTransferAmount
+	public boolean adaptiveFluidTransfer() {
+		return RebornCoreConfig.adaptiveFluidTransfer;
+	}
+
 	@Override
 	public void addInfo(List<Text> info, boolean isReal, boolean hasData) {
 		if (hasData) {
@@ -514,10 +757,7 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 		if(slotConfiguration == null){
 			return new int[]{}; // I think should be ok, if needed this can return all the slots
 		}
-		return slotConfiguration.getSlotsForSide(side).stream()
-			.filter(Objects::nonNull)
-			.filter(slotConfig -> slotConfig.getSlotIO().ioConfig != SlotConfiguration.ExtractConfig.NONE)
-			.mapToInt(SlotConfiguration.SlotConfig::getSlotID).toArray();
+		return slotConfiguration.getAvailableSlots(side);
 	}
 
 	@Override
@@ -561,6 +801,8 @@ public class MachineBaseBlockEntity extends BlockEntity implements BlockEntityTi
 
 	public void setRedstoneConfiguration(RedstoneConfiguration redstoneConfiguration) {
 		this.redstoneConfiguration = redstoneConfiguration;
+		markUpgradesChanged();
+		wake();
 	}
 
 	@Override
@@ -0,0 +1,242 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.blockentity;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.ints.IntList;
+import net.minecraft.block.BlockState;
+import net.minecraft.block.Blocks;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.Direction;
+import net.minecraft.world.BlockView;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiPredicate;
+import java.util.function.Consumer;
+
+/**
+ * A multiblock compiled from a {@link MultiblockWriter} into flat arrays. The offsets are precomputed for each
+ * horizontal direction, so checking or rendering the multiblock is a single loop without any writer wrappers.
+ *
+ * @see MachineBaseBlockEntity#getMultiblockShape()
+ */
+public final class MultiblockShape {
+
+	private static final Map<BlockState, StateMatcher> STATE_MATCHERS = new ConcurrentHashMap<>();
+
+	/**
+	 * Matches air blocks, used for the holes of {@link MultiblockWriter#ringWithAir}
+	 */
+	public static final BiPredicate<BlockView, BlockPos> AIR = (view, pos) -> view.getBlockState(pos).getBlock() == Blocks.AIR;
+
+	private final int size;
+	/**
+	 * x, y and z of each block, once for every amount of {@link MultiblockWriter#rotate()} calls
+	 */
+	private final int[][] offsets;
+	@Nullable
+	private final BlockBox[] bounds;
+	private final BlockState[] states;
+	private final int[] predicateIds;
+	private final BiPredicate<BlockView, BlockPos>[] predicates;
+	/**
+	 * The state matched by each predicate if it is a {@link StateMatcher}, those are compared directly
+	 */
+	private final BlockState[] matchedStates;
+
+	@SuppressWarnings("unchecked")
+	private MultiblockShape(Compiler compiler) {
+		this.size = compiler.states.size();
+		this.states = compiler.states.toArray(new BlockState[0]);
+		this.predicateIds = compiler.predicateIds.toIntArray();
+		this.predicates = compiler.predicates.toArray(new BiPredicate[0]);
+		this.matchedStates = new BlockState[predicates.length];
+		for (int i = 0; i < predicates.length; i++) {
+			if (predicates[i] instanceof StateMatcher matcher) {
+				matchedStates[i] = matcher.state();
+			}
+		}
+
+		this.offsets = new int[4][];
+		this.bounds = new BlockBox[4];
+		int[] base = compiler.offsets.toIntArray();
+		for (int rotation = 0; rotation < 4; rotation++) {
+			int[] rotated = new int[base.length];
+			for (int i = 0; i < base.length; i += 3) {
+				int x = base[i];
+				int y = base[i + 1];
+				int z = base[i + 2];
+				// Same as applying MultiblockWriter.rotate() the given amount of times
+				switch (rotation) {
+					case 1 -> { rotated[i] = -z; rotated[i + 2] = x; }
+					case 2 -> { rotated[i] = -x; rotated[i + 2] = -z; }
+					case 3 -> { rotated[i] = z; rotated[i + 2] = -x; }
+					default -> { rotated[i] = x; rotated[i + 2] = z; }
+				}
+				rotated[i + 1] = y;
+			}
+			offsets[rotation] = rotated;
+			bounds[rotation] = computeBounds(rotated);
+		}
+	}
+
+	/**
+	 * Compiles the blocks written by the given function
+	 *
+	 * @param shape {@link Consumer} Writes the multiblock, usually {@link MachineBaseBlockEntity#writeMultiblock}
+	 * @return {@link MultiblockShape} The compiled shape
+	 */
+	public static MultiblockShape compile(Consumer<MultiblockWriter> shape) {
+		Compiler compiler = new Compiler();
+		shape.accept(compiler);
+		return new MultiblockShape(compiler);
+	}
+
+	/**
+	 * Returns a predicate which checks for exactly the given state. The same instance is returned for equal states,
+	 * which allows compiled shapes to compare the state directly.
+	 *
+	 * @param state {@link BlockState} The state to match
+	 * @return {@link BiPredicate} The shared predicate
+	 */
+	public static BiPredicate<BlockView, BlockPos> matching(BlockState state) {
+		return STATE_MATCHERS.computeIfAbsent(state, StateMatcher::new);
+	}
+
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Checks every block of the multiblock
+	 *
+	 * @param view      {@link BlockView} The world to check in
+	 * @param origin    {@link BlockPos} The position the multiblock is relative to
+	 * @param direction {@link Direction} The direction passed to {@link MultiblockWriter#rotate(Direction)}
+	 * @return {@code boolean} True if all blocks match
+	 */
+	public boolean test(BlockView view, BlockPos origin, Direction direction) {
+		int[] rotated = offsets[getRotations(direction)];
+		BlockPos.Mutable pos = new BlockPos.Mutable();
+		for (int i = 0, j = 0; i < size; i++, j += 3) {
+			pos.set(origin.getX() + rotated[j], origin.getY() + rotated[j + 1], origin.getZ() + rotated[j + 2]);
+			int predicateId = predicateIds[i];
+			BlockState matched = matchedStates[predicateId];
+			if (matched != null) {
+				if (view.getBlockState(pos) != matched) {
+					return false;
+				}
+			} else if (!predicates[predicateId].test(view, pos)) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Writes the rotated blocks to the writer, for example to render a hologram
+	 *
+	 * @param writer    {@link MultiblockWriter} The writer to add the blocks to
+	 * @param direction {@link Direction} The direction passed to {@link MultiblockWriter#rotate(Direction)}
+	 */
+	public void write(MultiblockWriter writer, Direction direction) {
+		int[] rotated = offsets[getRotations(direction)];
+		for (int i = 0, j = 0; i < size; i++, j += 3) {
+			writer.add(rotated[j], rotated[j + 1], rotated[j + 2], predicates[predicateIds[i]], states[i]);
+		}
+	}
+
+	/**
+	 * @param origin    {@link BlockPos} The position the multiblock is relative to
+	 * @param direction {@link Direction} The direction passed to {@link MultiblockWriter#rotate(Direction)}
+	 * @return {@link BlockBox} The box around all blocks, or null if the shape is empty
+	 */
+	@Nullable
+	public BlockBox getBounds(BlockPos origin, Direction direction) {
+		BlockBox box = bounds[getRotations(direction)];
+		return box == null ? null : box.offset(origin.getX(), origin.getY(), origin.getZ());
+	}
+
+	private static int getRotations(Direction direction) {
+		return switch (direction) {
+			case NORTH -> 3;
+			case WEST -> 2;
+			case SOUTH -> 1;
+			default -> 0;
+		};
+	}
+
+	@Nullable
+	private static BlockBox computeBounds(int[] offsets) {
+		if (offsets.length == 0) {
+			return null;
+		}
+		int minX = Integer.MAX_VALUE, minY = Integer.MAX_VALUE, minZ = Integer.MAX_VALUE;
+		int maxX = Integer.MIN_VALUE, maxY = Integer.MIN_VALUE, maxZ = Integer.MIN_VALUE;
+		for (int i = 0; i < offsets.length; i += 3) {
+			minX = Math.min(minX, offsets[i]);
+			minY = Math.min(minY, offsets[i + 1]);
+			minZ = Math.min(minZ, offsets[i + 2]);
+			maxX = Math.max(maxX, offsets[i]);
+			maxY = Math.max(maxY, offsets[i + 1]);
+			maxZ = Math.max(maxZ, offsets[i + 2]);
+		}
+		return new BlockBox(minX, minY, minZ, maxX, maxY, maxZ);
+	}
+
+	private record StateMatcher(BlockState state) implements BiPredicate<BlockView, BlockPos> {
+		@Override
+		public boolean test(BlockView view, BlockPos pos) {
+			return view.getBlockState(pos) == state;
+		}
+	}
+
+	private static class Compiler implements MultiblockWriter {
+		private final IntList offsets = new IntArrayList();
+		private final List<BlockState> states = new ArrayList<>();
+		private final IntList predicateIds = new IntArrayList();
+		private final List<BiPredicate<BlockView, BlockPos>> predicates = new ArrayList<>();
+		private final Map<BiPredicate<BlockView, BlockPos>, Integer> predicateIndex = new IdentityHashMap<>();
+
+		@Override
+		public MultiblockWriter add(int x, int y, int z, BiPredicate<BlockView, BlockPos> predicate, BlockState state) {
+			offsets.add(x);
+			offsets.add(y);
+			offsets.add(z);
+			states.add(state);
+			predicateIds.add((int) predicateIndex.computeIfAbsent(predicate, p -> {
+				predicates.add(p);
+				return predicates.size() - 1;
+			}));
+			return this;
+		}
+	}
+}
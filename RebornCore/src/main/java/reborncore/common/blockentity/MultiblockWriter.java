@@ -36,7 +36,7 @@ import java.util.function.BiPredicate;
  * Writes a multiblock for either verification or hologram rendering
  *
  * @author ramidzkh
- * @see MultiblockVerifier
+ * @see MultiblockShape
  */
 public interface MultiblockWriter {
 
@@ -136,23 +136,23 @@ public interface MultiblockWriter {
 	}
 
 	default MultiblockWriter ringWithAir(Direction.Axis through, int x, int y, int z, BiPredicate<BlockView, BlockPos> predicate, BlockState state) {
-		return ring(through, x, y, z, predicate, state, (view, pos) -> view.getBlockState(pos).getBlock() == Blocks.AIR, Blocks.AIR.getDefaultState());
+		return ring(through, x, y, z, predicate, state, MultiblockShape.AIR, Blocks.AIR.getDefaultState());
 	}
 
 	default MultiblockWriter add(int x, int y, int z, BlockState state) {
-		return this.add(x, y, z, (view, pos) -> view.getBlockState(pos) == state, state);
+		return this.add(x, y, z, MultiblockShape.matching(state), state);
 	}
 
 	default MultiblockWriter fill(int ax, int ay, int az, int bx, int by, int bz, BlockState state) {
-		return fill(ax, ay, az, bx, by, bz, (view, pos) -> view.getBlockState(pos) == state, state);
+		return fill(ax, ay, az, bx, by, bz, MultiblockShape.matching(state), state);
 	}
 
 	default MultiblockWriter ring(Direction.Axis through, int x, int y, int z, BlockState state, BlockState holeState) {
-		return ring(through, x, y, z, (view, pos) -> view.getBlockState(pos) == state, state, (view, pos) -> view.getBlockState(pos) == holeState, holeState);
+		return ring(through, x, y, z, MultiblockShape.matching(state), state, MultiblockShape.matching(holeState), holeState);
 	}
 
 	default MultiblockWriter ringWithAir(Direction.Axis through, int x, int y, int z, BlockState state) {
-		return ringWithAir(through, x, y, z, (view, pos) -> view.getBlockState(pos) == state, state);
+		return ringWithAir(through, x, y, z, MultiblockShape.matching(state), state);
 	}
 
 	default MultiblockWriter translate(int offsetX, int offsetY, int offsetZ) {
@@ -195,32 +195,4 @@ public interface MultiblockWriter {
 		}
 	}
 
-	/**
-	 * A writer which verifies the positions of each block
-	 */
-	class MultiblockVerifier implements MultiblockWriter {
-		private final BlockPos relative;
-		private final BlockView view;
-
-		private boolean valid = true;
-
-		public MultiblockVerifier(BlockPos relative, BlockView view) {
-			this.relative = relative;
-			this.view = view;
-		}
-
-		public boolean isValid() {
-			return valid;
-		}
-
-		@Override
-		public MultiblockWriter add(int x, int y, int z, BiPredicate<BlockView, BlockPos> predicate, BlockState state) {
-			if (valid) {
-				valid = predicate.test(view, relative.add(x, y, z));
-			}
-
-			return this;
-		}
-	}
-
 }
@@ -26,8 +26,11 @@ package reborncore.common.blockentity;
 
 import com.mojang.brigadier.exceptions.CommandSyntaxException;
 import io.netty.buffer.ByteBuf;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemStorage;
+import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
+import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
 import net.fabricmc.fabric.api.transfer.v1.storage.StorageUtil;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.item.ItemStack;
@@ -35,6 +38,7 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.StringNbtReader;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.codec.PacketCodecs;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.Direction;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.Nullable;
@@ -50,11 +54,29 @@ public class SlotConfiguration implements NBTSerializable {
 		.collect(PacketCodecs.toList())
 		.xmap(SlotConfiguration::new, SlotConfiguration::getSlotDetails);
 
+	private static final Direction[] DIRECTIONS = Direction.values();
+	private static final int[] NO_SLOTS = new int[0];
+
 	List<SlotConfigHolder> slotDetails = new ArrayList<>();
+	// Holders indexed by slot id
+	private SlotConfigHolder[] slotLookup = new SlotConfigHolder[0];
 
 	@Nullable
 	Inventory inventory;
 
+	/**
+	 * Auto IO steps in the order they run, each packed as {@code slot << 4 | side << 1 | output}.
+	 * Only contains the sides which are configured and have auto input or output enabled, null until rebuilt.
+	 */
+	@Nullable
+	private int[] ioPlan;
+	// Slots which aren't NONE on each side
+	private final int[][] sideSlots = new int[6][];
+	@SuppressWarnings("unchecked")
+	private final BlockApiCache<Storage<ItemVariant>, Direction>[] neighborCaches = new BlockApiCache[6];
+	@Nullable
+	private InventoryStorage inventoryStorage;
+
 	public SlotConfiguration(RebornInventory<?> inventory) {
 		this.inventory = inventory;
 
@@ -64,8 +86,10 @@ public class SlotConfiguration implements NBTSerializable {
 	}
 
 	private SlotConfiguration(List<SlotConfigHolder> slotDetails) {
-		this.slotDetails = slotDetails;
 		this.inventory = null;
+		for (SlotConfigHolder holder : slotDetails) {
+			updateSlotDetails(holder);
+		}
 	}
 
 	public void update(MachineBaseBlockEntity machineBase) {
@@ -83,14 +107,138 @@ public class SlotConfiguration implements NBTSerializable {
 			}
 		}
 		if (!machineBase.getWorld().isClient && machineBase.getWorld().getTime() % machineBase.slotTransferSpeed() == 0) {
-			getSlotDetails().forEach(slotConfigHolder -> slotConfigHolder.handleItemIO(machineBase));
+			handleItemIO(machineBase);
+		}
+	}
+
+	private void handleItemIO(MachineBaseBlockEntity machineBase) {
+		int[] plan = getIoPlan();
+		if (plan.length == 0 || machineBase.getOptionalInventory().isEmpty()) {
+			return;
+		}
+		RebornInventory<?> inventory = machineBase.getOptionalInventory().get();
+		if (inventoryStorage == null) {
+			inventoryStorage = InventoryStorage.of(machineBase, null);
+		}
+		for (int step : plan) {
+			int slotID = step >>> 4;
+			Direction side = DIRECTIONS[(step >>> 1) & 7];
+			ItemStack stack = inventory.getStack(slotID);
+			if ((step & 1) == 0) {
+				if (stack.getMaxCount() == stack.getCount()) {
+					continue;
+				}
+				Storage<ItemVariant> neighbor = findNeighbor(machineBase, side);
+				if (neighbor != null) {
+					StorageUtil.move(neighbor, inventoryStorage.getSlot(slotID), iv -> true, 4, null); // Move up to 4 per tick.
+				}
+			} else {
+				if (stack.isEmpty()) {
+					continue;
+				}
+				Storage<ItemVariant> neighbor = findNeighbor(machineBase, side);
+				if (neighbor != null) {
+					StorageUtil.move(inventoryStorage.getSlot(slotID), neighbor, iv -> true, Long.MAX_VALUE, null);
+				}
+			}
+		}
+	}
+
+	@Nullable
+	private Storage<ItemVariant> findNeighbor(MachineBaseBlockEntity machineBase, Direction side) {
+		BlockApiCache<Storage<ItemVariant>, Direction> cache = neighborCaches[side.ordinal()];
+		if (cache == null) {
+			cache = BlockApiCache.create(ItemStorage.SIDED, (ServerWorld) machineBase.getWorld(), machineBase.getPos().offset(side));
+			neighborCaches[side.ordinal()] = cache;
+		}
+		return cache.find(side.getOpposite());
+	}
+
+	/**
+	 * Flattens the holders into the auto IO steps and the slots of each side, rebuilt after the configuration changes
+	 *
+	 * @return {@code int[]} Steps of the plan, see {@link #ioPlan}
+	 */
+	private int[] getIoPlan() {
+		if (ioPlan != null) {
+			return ioPlan;
+		}
+		int[] plan = new int[slotDetails.size() * DIRECTIONS.length];
+		int size = 0;
+		for (SlotConfigHolder holder : slotDetails) {
+			if (!holder.input && !holder.output) {
+				continue;
+			}
+			if (holder.first != null) {
+				size = addStep(plan, size, holder, holder.first);
+			}
+			for (Direction side : DIRECTIONS) {
+				if (side != holder.first && side != holder.last) {
+					size = addStep(plan, size, holder, side);
+				}
+			}
+			if (holder.last != null) {
+				size = addStep(plan, size, holder, holder.last);
+			}
+		}
+		for (Direction side : DIRECTIONS) {
+			sideSlots[side.ordinal()] = slotDetails.stream()
+				.map(holder -> holder.getSideDetail(side))
+				.filter(config -> config.getSlotIO().getIoConfig() != ExtractConfig.NONE)
+				.mapToInt(SlotConfig::getSlotID)
+				.toArray();
+		}
+		ioPlan = Arrays.copyOf(plan, size);
+		return ioPlan;
+	}
+
+	private static int addStep(int[] plan, int size, SlotConfigHolder holder, Direction side) {
+		switch (holder.getSideDetail(side).getSlotIO().getIoConfig()) {
+			case INPUT -> {
+				if (holder.input) plan[size++] = holder.slotID << 4 | side.ordinal() << 1;
+			}
+			case OUTPUT -> {
+				if (holder.output) plan[size++] = holder.slotID << 4 | side.ordinal() << 1 | 1;
+			}
 		}
+		return size;
+	}
+
+	void invalidateIoPlan() {
+		ioPlan = null;
+	}
+
+	/**
+	 * @param side {@link Direction} Side to look at
+	 * @return {@code int[]} Slots which can be inserted into or extracted from on the side
+	 */
+	public int[] getAvailableSlots(Direction side) {
+		getIoPlan();
+		int[] slots = sideSlots[side.ordinal()];
+		return slots != null ? slots : NO_SLOTS;
 	}
 
 	public SlotConfiguration(NbtCompound tagCompound) {
 		read(tagCompound);
 	}
 
+	/**
+	 * Checks if an update could move items, auto input always has to poll the neighbours.
+	 *
+	 * @return {@code boolean} True if any slot has auto input enabled or has items to auto output
+	 */
+	public boolean hasPendingIO() {
+		for (int step : getIoPlan()) {
+			if ((step & 1) == 0) {
+				return true;
+			}
+			if (inventory != null && !inventory.getStack(step >>> 4).isEmpty()) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public List<SlotConfigHolder> getSlotDetails() {
 		return slotDetails;
 	}
@@ -105,19 +253,21 @@ public class SlotConfiguration implements NBTSerializable {
 		SlotConfigHolder lookup = getSlotDetails(slotConfigHolder.slotID);
 		if (lookup != null) {
 			slotDetails.remove(lookup);
+			lookup.owner = null;
 		}
 		slotDetails.add(slotConfigHolder);
+		if (slotConfigHolder.slotID >= slotLookup.length) {
+			slotLookup = Arrays.copyOf(slotLookup, slotConfigHolder.slotID + 1);
+		}
+		slotLookup[slotConfigHolder.slotID] = slotConfigHolder;
+		slotConfigHolder.owner = this;
+		ioPlan = null;
 		return slotConfigHolder;
 	}
 
 	@Nullable
 	public SlotConfigHolder getSlotDetails(int id) {
-		for (SlotConfigHolder detail : slotDetails) {
-			if (detail.slotID == id) {
-				return detail;
-			}
-		}
-		return null;
+		return id >= 0 && id < slotLookup.length ? slotLookup[id] : null;
 	}
 
 	public List<SlotConfig> getSlotsForSide(Direction facing) {
@@ -160,6 +310,9 @@ public class SlotConfiguration implements NBTSerializable {
 		boolean input, output, filter;
 		@Nullable
 		public Direction first, last;
+		// Configuration using this holder, told about changes so it can rebuild its IO plan
+		@Nullable
+		SlotConfiguration owner;
 
 		private SlotConfigHolder(int slotID, HashMap<Direction, SlotConfig> sideMap, boolean input, boolean output, boolean filter, int priority) {
 			this.slotID = slotID;
@@ -196,32 +349,12 @@ public class SlotConfiguration implements NBTSerializable {
 		public void updateSlotConfig(SlotConfig config) {
 			SlotConfig toEdit = sideMap.get(config.side);
 			toEdit.slotIO = config.slotIO;
+			changed();
 		}
 
-		private void handleItemIO(MachineBaseBlockEntity machineBase) {
-			if (!input && !output) {
-				return;
-			}
-			if (first != null) {
-				handleItemSideIo(machineBase, sideMap.get(first));
-			}
-			sideMap.forEach((key, config) -> {
-				if (key == first || key == last) return;
-				handleItemSideIo(machineBase, config);
-			});
-			if (last != null) {
-				handleItemSideIo(machineBase, sideMap.get(last));
-			}
-		}
-
-		private void handleItemSideIo(MachineBaseBlockEntity machineBase, SlotConfig config) {
-			switch (config.getSlotIO().getIoConfig()) {
-				case INPUT -> {
-					if (input) config.handleItemInput(machineBase);
-				}
-				case OUTPUT -> {
-					if (output) config.handleItemOutput(machineBase);
-				}
+		private void changed() {
+			if (owner != null) {
+				owner.invalidateIoPlan();
 			}
 		}
 
@@ -249,14 +382,17 @@ public class SlotConfiguration implements NBTSerializable {
 			Direction[] directions = Direction.values();
 			this.first = first == 6 ? null : directions[first];
 			this.last = last == 6 ? null : directions[last];
+			changed();
 		}
 
 		public void setInput(boolean input) {
 			this.input = input;
+			changed();
 		}
 
 		public void setOutput(boolean output) {
 			this.output = output;
+			changed();
 		}
 
 		public void setFilter(boolean filter) {
@@ -305,6 +441,7 @@ public class SlotConfiguration implements NBTSerializable {
 				first = null;
 				last = null;
 			}
+			changed();
 		}
 	}
 
@@ -352,38 +489,6 @@ public class SlotConfiguration implements NBTSerializable {
 			return slotID;
 		}
 
-		private void handleItemInput(MachineBaseBlockEntity machineBase) {
-			RebornInventory<?> inventory = machineBase.getOptionalInventory().get();
-			ItemStack targetStack = inventory.getStack(slotID);
-			if (targetStack.getMaxCount() == targetStack.getCount()) {
-				return;
-			}
-
-			StorageUtil.move(
-					ItemStorage.SIDED.find(machineBase.getWorld(), machineBase.getPos().offset(side), side.getOpposite()),
-					InventoryStorage.of(machineBase, null).getSlot(slotID),
-					iv -> true,
-					4, // Move up to 4 per tick.
-					null
-			);
-		}
-
-		private void handleItemOutput(MachineBaseBlockEntity machineBase) {
-			RebornInventory<?> inventory = machineBase.getOptionalInventory().get();
-			ItemStack sourceStack = inventory.getStack(slotID);
-			if (sourceStack.isEmpty()) {
-				return;
-			}
-
-			StorageUtil.move(
-					InventoryStorage.of(machineBase, null).getSlot(slotID),
-					ItemStorage.SIDED.find(machineBase.getWorld(), machineBase.getPos().offset(side), side.getOpposite()),
-					iv -> true,
-					Long.MAX_VALUE,
-					null
-			);
-		}
-
 		@Override
 		public NbtCompound write() {
 			NbtCompound tagCompound = new NbtCompound();
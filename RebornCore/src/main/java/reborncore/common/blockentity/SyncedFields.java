@@ -0,0 +1,134 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.blockentity;
+
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import reborncore.common.screen.Syncable;
+import reborncore.common.screen.builder.SyncSlot;
+import reborncore.common.screen.builder.SyncedObject;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Block entity fields which are synced to the client one by one, instead of sending the whole block entity NBT.
+ * Only fields which changed since they were last sent are written.
+ *
+ * @see reborncore.common.network.FieldSyncManager
+ */
+public final class SyncedFields {
+
+	private final List<SyncSlot> slots = new ArrayList<>();
+	private final long[] changed;
+	/**
+	 * Set while the block entity waits to be sent at the end of the tick
+	 */
+	private boolean queued = false;
+
+	/**
+	 * @param configure {@link Syncable} Declares the fields, in the same order on both sides
+	 */
+	public SyncedFields(Syncable configure) {
+		configure.configureSync(new Syncable.Context() {
+			@Override
+			public <T> void sync(PacketCodec<? super RegistryByteBuf, T> codec, Supplier<T> supplier, Consumer<T> setter) {
+				slots.add(SyncSlot.of(new SyncedObject<>(codec, supplier, setter)));
+			}
+		});
+		this.changed = new long[(slots.size() + 63) >> 6];
+	}
+
+	public boolean isEmpty() {
+		return slots.isEmpty();
+	}
+
+	public boolean isQueued() {
+		return queued;
+	}
+
+	public void setQueued(boolean queued) {
+		this.queued = queued;
+	}
+
+	/**
+	 * Writes the fields which changed since they were last written
+	 *
+	 * @param buf     {@link RegistryByteBuf} Buffer to write to
+	 * @param scratch {@link RegistryByteBuf} Buffer to compare encoded values with
+	 * @return {@code boolean} False if nothing changed, nothing is written then
+	 */
+	public boolean write(RegistryByteBuf buf, RegistryByteBuf scratch) {
+		int count = 0;
+		for (int i = 0; i < slots.size(); i++) {
+			if (slots.get(i).poll(scratch)) {
+				changed[i >> 6] |= 1L << i;
+				count++;
+			}
+		}
+		if (count == 0) {
+			return false;
+		}
+
+		buf.writeVarInt(count);
+		int previous = -1;
+		for (int word = 0; word < changed.length; word++) {
+			long bits = changed[word];
+			while (bits != 0) {
+				int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				buf.writeVarInt(index - previous - 1);
+				previous = index;
+				// Players that started tracking since the last update don't know the previous value
+				slots.get(index).writeValue(buf);
+			}
+			changed[word] = 0;
+		}
+		return true;
+	}
+
+	/**
+	 * Reads fields written by {@link #write} on the client
+	 *
+	 * @param buf {@link RegistryByteBuf} Buffer to read from
+	 */
+	public void read(RegistryByteBuf buf) {
+		int count = buf.readVarInt();
+		int index = -1;
+		for (int i = 0; i < count; i++) {
+			index += buf.readVarInt() + 1;
+			slots.get(index).readValue(buf);
+		}
+	}
+
+	/**
+	 * Implemented by block entities which sync fields through {@link SyncedFields}
+	 */
+	public interface Provider {
+		SyncedFields getSyncedFields();
+	}
+}
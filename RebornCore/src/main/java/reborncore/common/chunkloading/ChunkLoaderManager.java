@@ -27,8 +27,12 @@ package reborncore.common.chunkloading;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtElement;
+import net.minecraft.nbt.NbtList;
 import net.minecraft.nbt.NbtOps;
 import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.network.codec.PacketCodecs;
@@ -45,20 +49,26 @@ import net.minecraft.world.PersistentState;
 import net.minecraft.world.World;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.Nullable;
 import reborncore.common.network.NetworkManager;
 import reborncore.common.network.clientbound.ChunkSyncPayload;
 
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Collectors;
 
 // This does not do the actual chunk loading, just keeps track of what chunks the chunk loader has loaded
 public class ChunkLoaderManager extends PersistentState {
 	public static final PersistentState.Type<ChunkLoaderManager> TYPE = new Type<>(ChunkLoaderManager::new, ChunkLoaderManager::fromTag, null);
 
+	/**
+	 * Format of the flat list used before the chunks were saved per world, only read
+	 */
 	public static Codec<List<LoadedChunk>> CODEC = Codec.list(LoadedChunk.CODEC);
 
 	private static final ChunkTicketType<ChunkPos> CHUNK_LOADER = ChunkTicketType.create("reborncore:chunk_loader", Comparator.comparingLong(ChunkPos::toLong));
@@ -73,50 +83,94 @@ public class ChunkLoaderManager extends PersistentState {
 		return serverWorld.getPersistentStateManager().getOrCreate(TYPE, KEY);
 	}
 
-	private final List<LoadedChunk> loadedChunks = new ArrayList<>();
+	private final Map<Identifier, WorldChunks> worlds = new HashMap<>();
 
 	public static ChunkLoaderManager fromTag(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
 		ChunkLoaderManager chunkLoaderManager = new ChunkLoaderManager();
 
-		chunkLoaderManager.loadedChunks.clear();
-
-		List<LoadedChunk> chunks = CODEC.parse(NbtOps.INSTANCE, tag.getList("loadedchunks", NbtElement.COMPOUND_TYPE))
-				.result()
-				.orElse(Collections.emptyList());
+		if (tag.contains("worlds", NbtElement.COMPOUND_TYPE)) {
+			NbtCompound worldsTag = tag.getCompound("worlds");
+			for (String worldName : worldsTag.getKeys()) {
+				Identifier world = Identifier.tryParse(worldName);
+				if (world == null) {
+					continue;
+				}
+				NbtList loaders = worldsTag.getList(worldName, NbtElement.COMPOUND_TYPE);
+				for (int i = 0; i < loaders.size(); i++) {
+					NbtCompound loaderTag = loaders.getCompound(i);
+					BlockPos chunkLoader = BlockPos.fromLong(loaderTag.getLong("pos"));
+					String player = loaderTag.getString("player");
+					if (StringUtils.isBlank(player)) {
+						continue;
+					}
+					for (long chunk : loaderTag.getLongArray("chunks")) {
+						chunkLoaderManager.add(new LoadedChunk(new ChunkPos(chunk), world, player, chunkLoader));
+					}
+				}
+			}
+		}
 
-		chunkLoaderManager.loadedChunks.addAll(chunks);
+		if (tag.contains("loadedchunks", NbtElement.LIST_TYPE)) {
+			CODEC.parse(NbtOps.INSTANCE, tag.getList("loadedchunks", NbtElement.COMPOUND_TYPE))
+					.result()
+					.orElse(Collections.emptyList())
+					.forEach(chunkLoaderManager::add);
+		}
 
 		return chunkLoaderManager;
 	}
 
+	/**
+	 * Writes the chunks per world, as one entry per chunk loader and player holding the packed chunk positions
+	 */
 	@Override
 	public NbtCompound writeNbt(NbtCompound compoundTag, RegistryWrapper.WrapperLookup registryLookup) {
-		CODEC.encodeStart(NbtOps.INSTANCE, loadedChunks)
-				.result()
-				.ifPresent(tag -> compoundTag.put("loadedchunks", tag));
+		NbtCompound worldsTag = new NbtCompound();
+		for (Map.Entry<Identifier, WorldChunks> world : worlds.entrySet()) {
+			NbtList loaders = new NbtList();
+			for (List<LoadedChunk> chunks : world.getValue().byLoader.values()) {
+				Map<String, LongArrayList> byPlayer = new LinkedHashMap<>();
+				for (LoadedChunk loadedChunk : chunks) {
+					byPlayer.computeIfAbsent(loadedChunk.player(), p -> new LongArrayList()).add(loadedChunk.chunk().toLong());
+				}
+				for (Map.Entry<String, LongArrayList> player : byPlayer.entrySet()) {
+					NbtCompound loaderTag = new NbtCompound();
+					loaderTag.putLong("pos", chunks.get(0).chunkLoader().asLong());
+					loaderTag.putString("player", player.getKey());
+					loaderTag.putLongArray("chunks", player.getValue().toLongArray());
+					loaders.add(loaderTag);
+				}
+			}
+			worldsTag.put(world.getKey().toString(), loaders);
+		}
+		compoundTag.put("worlds", worldsTag);
 		return compoundTag;
 	}
 
 	public Optional<LoadedChunk> getLoadedChunk(World world, ChunkPos chunkPos, BlockPos chunkLoader){
-		return loadedChunks.stream()
-			.filter(loadedChunk -> loadedChunk.world().equals(getWorldName(world)))
-			.filter(loadedChunk -> loadedChunk.chunk().equals(chunkPos))
-			.filter(loadedChunk -> loadedChunk.chunkLoader().equals(chunkLoader))
-			.findFirst();
+		List<LoadedChunk> chunks = getByChunk(world, chunkPos);
+		if (chunks != null) {
+			for (LoadedChunk loadedChunk : chunks) {
+				if (loadedChunk.chunkLoader().equals(chunkLoader)) {
+					return Optional.of(loadedChunk);
+				}
+			}
+		}
+		return Optional.empty();
 	}
 
 	public Optional<LoadedChunk> getLoadedChunk(World world, ChunkPos chunkPos){
-		return loadedChunks.stream()
-			.filter(loadedChunk -> loadedChunk.world().equals(getWorldName(world)))
-			.filter(loadedChunk -> loadedChunk.chunk().equals(chunkPos))
-			.findFirst();
+		List<LoadedChunk> chunks = getByChunk(world, chunkPos);
+		return chunks != null ? Optional.of(chunks.get(0)) : Optional.empty();
 	}
 
 	public List<LoadedChunk> getLoadedChunks(World world, BlockPos chunkLoader){
-		return loadedChunks.stream()
-			.filter(loadedChunk -> loadedChunk.world().equals(getWorldName(world)))
-			.filter(loadedChunk -> loadedChunk.chunkLoader().equals(chunkLoader))
-			.collect(Collectors.toList());
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		if (worldChunks == null) {
+			return new ArrayList<>();
+		}
+		List<LoadedChunk> chunks = worldChunks.byLoader.get(chunkLoader.asLong());
+		return chunks != null ? new ArrayList<>(chunks) : new ArrayList<>();
 	}
 
 	public boolean isChunkLoaded(World world, ChunkPos chunkPos, BlockPos chunkLoader){
@@ -124,14 +178,23 @@ public class ChunkLoaderManager extends PersistentState {
 	}
 
 	public boolean isChunkLoaded(World world, ChunkPos chunkPos){
-		return getLoadedChunk(world, chunkPos).isPresent();
+		return getByChunk(world, chunkPos) != null;
+	}
+
+	@Nullable
+	private List<LoadedChunk> getByChunk(World world, ChunkPos chunkPos) {
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		return worldChunks != null ? worldChunks.byChunk.get(chunkPos.toLong()) : null;
 	}
 
+	private void add(LoadedChunk loadedChunk) {
+		worlds.computeIfAbsent(loadedChunk.world(), w -> new WorldChunks()).add(loadedChunk);
+	}
 
 	public void loadChunk(World world, ChunkPos chunkPos, BlockPos chunkLoader, String player){
 		Validate.isTrue(!isChunkLoaded(world, chunkPos, chunkLoader), "chunk is already loaded");
 		LoadedChunk loadedChunk = new LoadedChunk(chunkPos, getWorldName(world), player, chunkLoader);
-		loadedChunks.add(loadedChunk);
+		add(loadedChunk);
 
 		loadChunk((ServerWorld) world, loadedChunk);
 
@@ -139,7 +202,20 @@ public class ChunkLoaderManager extends PersistentState {
 	}
 
 	public void unloadChunkLoader(World world, BlockPos chunkLoader){
-		getLoadedChunks(world, chunkLoader).forEach(loadedChunk -> unloadChunk(world, loadedChunk.chunk(), chunkLoader));
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		if (worldChunks == null) {
+			return;
+		}
+		List<LoadedChunk> chunks = worldChunks.byLoader.remove(chunkLoader.asLong());
+		if (chunks == null) {
+			return;
+		}
+		for (LoadedChunk loadedChunk : chunks) {
+			worldChunks.removeFromChunk(loadedChunk);
+			removeTicketIfUnused(world, worldChunks, loadedChunk.chunk());
+		}
+		removeIfEmpty(worldChunks, world);
+		markDirty();
 	}
 
 	public void unloadChunk(World world, ChunkPos chunkPos, BlockPos chunkLoader){
@@ -147,22 +223,42 @@ public class ChunkLoaderManager extends PersistentState {
 		Validate.isTrue(optionalLoadedChunk.isPresent(), "chunk is not loaded");
 
 		LoadedChunk loadedChunk = optionalLoadedChunk.get();
+		WorldChunks worldChunks = worlds.get(loadedChunk.world());
+
+		worldChunks.remove(loadedChunk);
 
-		loadedChunks.remove(loadedChunk);
+		removeTicketIfUnused(world, worldChunks, loadedChunk.chunk());
+		removeIfEmpty(worldChunks, world);
+		markDirty();
+	}
 
-		if(!isChunkLoaded(world, loadedChunk.chunk())){
+	private void removeTicketIfUnused(World world, WorldChunks worldChunks, ChunkPos chunkPos) {
+		if (!worldChunks.byChunk.containsKey(chunkPos.toLong())) {
 			final ServerChunkManager serverChunkManager = ((ServerWorld) world).getChunkManager();
-			serverChunkManager.removeTicket(ChunkLoaderManager.CHUNK_LOADER, loadedChunk.chunk(), RADIUS, loadedChunk.chunk());
+			serverChunkManager.removeTicket(ChunkLoaderManager.CHUNK_LOADER, chunkPos, RADIUS, chunkPos);
+		}
+	}
+
+	private void removeIfEmpty(WorldChunks worldChunks, World world) {
+		// Keeps worlds empty when nothing is loaded, see onServerWorldTick
+		if (worldChunks.byLoader.isEmpty()) {
+			worlds.remove(getWorldName(world));
 		}
-		markDirty();
 	}
 
 	public void onServerWorldLoad(ServerWorld world) {
-		loadedChunks.forEach(loadedChunk -> loadChunk(world, loadedChunk));
+		WorldChunks worldChunks = worlds.get(getWorldName(world));
+		if (worldChunks == null) {
+			return;
+		}
+		// One ticket per chunk is enough, no matter how many loaders keep it loaded
+		for (List<LoadedChunk> chunks : worldChunks.byChunk.values()) {
+			loadChunk(world, chunks.get(0));
+		}
 	}
 
 	public void onServerWorldTick(ServerWorld world) {
-		if (!loadedChunks.isEmpty()) {
+		if (!worlds.isEmpty()) {
 			world.resetIdleTimeout();
 		}
 	}
@@ -176,11 +272,24 @@ public class ChunkLoaderManager extends PersistentState {
 	}
 
 	public void syncChunkLoaderToClient(ServerPlayerEntity serverPlayerEntity, BlockPos chunkLoader){
-		syncToClient(serverPlayerEntity, loadedChunks.stream().filter(loadedChunk -> loadedChunk.chunkLoader().equals(chunkLoader)).collect(Collectors.toList()));
+		List<LoadedChunk> chunks = new ArrayList<>();
+		for (WorldChunks worldChunks : worlds.values()) {
+			List<LoadedChunk> loaderChunks = worldChunks.byLoader.get(chunkLoader.asLong());
+			if (loaderChunks != null) {
+				chunks.addAll(loaderChunks);
+			}
+		}
+		syncToClient(serverPlayerEntity, chunks);
 	}
 
 	public void syncAllToClient(ServerPlayerEntity serverPlayerEntity) {
-		syncToClient(serverPlayerEntity, loadedChunks);
+		List<LoadedChunk> chunks = new ArrayList<>();
+		for (WorldChunks worldChunks : worlds.values()) {
+			for (List<LoadedChunk> loaderChunks : worldChunks.byLoader.values()) {
+				chunks.addAll(loaderChunks);
+			}
+		}
+		syncToClient(serverPlayerEntity, chunks);
 	}
 
 	public void clearClient(ServerPlayerEntity serverPlayerEntity) {
@@ -196,6 +305,36 @@ public class ChunkLoaderManager extends PersistentState {
 		world.getChunkManager().addTicket(ChunkLoaderManager.CHUNK_LOADER, chunkPos, RADIUS, chunkPos);
 	}
 
+	/**
+	 * The loaded chunks of one world, indexed by chunk and by chunk loader. Both are keyed by the packed position.
+	 */
+	private static final class WorldChunks {
+		private final Long2ObjectMap<List<LoadedChunk>> byChunk = new Long2ObjectOpenHashMap<>();
+		private final Long2ObjectMap<List<LoadedChunk>> byLoader = new Long2ObjectOpenHashMap<>();
+
+		private void add(LoadedChunk loadedChunk) {
+			byChunk.computeIfAbsent(loadedChunk.chunk().toLong(), c -> new ArrayList<>(1)).add(loadedChunk);
+			byLoader.computeIfAbsent(loadedChunk.chunkLoader().asLong(), l -> new ArrayList<>()).add(loadedChunk);
+		}
+
+		private void remove(LoadedChunk loadedChunk) {
+			removeFromChunk(loadedChunk);
+			long loader = loadedChunk.chunkLoader().asLong();
+			List<LoadedChunk> chunks = byLoader.get(loader);
+			if (chunks != null && chunks.remove(loadedChunk) && chunks.isEmpty()) {
+				byLoader.remove(loader);
+			}
+		}
+
+		private void removeFromChunk(LoadedChunk loadedChunk) {
+			long chunk = loadedChunk.chunk().toLong();
+			List<LoadedChunk> loaders = byChunk.get(chunk);
+			if (loaders != null && loaders.remove(loadedChunk) && loaders.isEmpty()) {
+				byChunk.remove(chunk);
+			}
+		}
+	}
+
 	public record LoadedChunk(ChunkPos chunk, Identifier world, String player, BlockPos chunkLoader) {
 		public static Codec<ChunkPos> CHUNK_POS_CODEC = RecordCodecBuilder.create(instance ->
 			instance.group(
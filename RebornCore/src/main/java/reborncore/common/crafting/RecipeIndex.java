@@ -0,0 +1,144 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.crafting;
+
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.recipe.Ingredient;
+import net.minecraft.recipe.RecipeEntry;
+import net.minecraft.registry.entry.RegistryEntry;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Recipes of a single {@link net.minecraft.recipe.RecipeType} indexed by the items their ingredients accept.
+ * <p>
+ * Built once per data pack reload by {@link RecipeUtils#getRecipeIndex}. Recipes with ingredients that cannot be
+ * listed up front (custom ingredients) are kept in {@link #getUnindexed()} and must always be tested.
+ *
+ * @param <T> The recipe type
+ */
+public final class RecipeIndex<T extends RebornRecipe> {
+	private final List<RecipeEntry<T>> entries;
+	private final Map<Item, List<RecipeEntry<T>>> byItem = new IdentityHashMap<>();
+	private final List<RecipeEntry<T>> unindexed = new ArrayList<>();
+
+	RecipeIndex(List<RecipeEntry<T>> entries) {
+		this.entries = entries;
+
+		for (RecipeEntry<T> entry : entries) {
+			List<Ingredient> ingredients = getIngredients(entry.value());
+			boolean indexed = !ingredients.isEmpty();
+
+			for (Ingredient ingredient : ingredients) {
+				if (ingredient.getCustomIngredient() != null) {
+					indexed = false;
+					continue;
+				}
+
+				for (RegistryEntry<Item> item : ingredient.entries) {
+					List<RecipeEntry<T>> recipes = byItem.computeIfAbsent(item.value(), i -> new ArrayList<>());
+					// Recipes using the same item twice should only be listed once.
+					if (recipes.isEmpty() || recipes.getLast() != entry) {
+						recipes.add(entry);
+					}
+				}
+			}
+
+			if (!indexed) {
+				unindexed.add(entry);
+			}
+		}
+	}
+
+	private static List<Ingredient> getIngredients(RebornRecipe recipe) {
+		if (recipe.ingredients().isEmpty()) {
+			// Recipes wrapping a vanilla recipe, such as the rolling machine, only expose their placement.
+			return recipe.getIngredientPlacement().getIngredients();
+		}
+
+		List<Ingredient> ingredients = new ArrayList<>(recipe.ingredients().size());
+		for (SizedIngredient ingredient : recipe.ingredients()) {
+			ingredients.add(ingredient.ingredient());
+		}
+		return ingredients;
+	}
+
+	/**
+	 * @return All recipes of this type
+	 */
+	public List<RecipeEntry<T>> getEntries() {
+		return entries;
+	}
+
+	/**
+	 * @param item {@link Item} The item to look up
+	 * @return Recipes that have at least one ingredient accepting the item, not including {@link #getUnindexed()}
+	 */
+	public List<RecipeEntry<T>> getEntries(Item item) {
+		return byItem.getOrDefault(item, List.of());
+	}
+
+	/**
+	 * @return Recipes that could not be indexed by item and have to be tested against every input
+	 */
+	public List<RecipeEntry<T>> getUnindexed() {
+		return unindexed;
+	}
+
+	/**
+	 * @param stack {@link ItemStack} The stack to test
+	 * @return {@code true} if any {@link SizedIngredient} of any recipe accepts the stack
+	 */
+	public boolean isValidInput(ItemStack stack) {
+		if (stack.isEmpty()) {
+			return false;
+		}
+
+		for (RecipeEntry<T> entry : getEntries(stack.getItem())) {
+			if (accepts(entry.value(), stack)) {
+				return true;
+			}
+		}
+		for (RecipeEntry<T> entry : unindexed) {
+			if (accepts(entry.value(), stack)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
+	private static boolean accepts(RebornRecipe recipe, ItemStack stack) {
+		for (SizedIngredient ingredient : recipe.ingredients()) {
+			if (ingredient.test(stack)) {
+				return true;
+			}
+		}
+		return false;
+	}
+}
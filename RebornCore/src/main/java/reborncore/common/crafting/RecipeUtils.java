@@ -28,6 +28,7 @@ import net.minecraft.advancement.Advancement;
 import net.minecraft.advancement.AdvancementRequirements;
 import net.minecraft.advancement.AdvancementRewards;
 import net.minecraft.advancement.criterion.RecipeUnlockedCriterion;
+import net.minecraft.fluid.Fluid;
 import net.minecraft.recipe.Recipe;
 import net.minecraft.recipe.RecipeEntry;
 import net.minecraft.recipe.RecipeType;
@@ -36,27 +37,119 @@ import net.minecraft.server.world.ServerWorld;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.stream.Stream;
+import java.util.function.Function;
 
 public class RecipeUtils {
+	private static final Map<RecipeType<?>, CachedRecipes<?>> RECIPE_CACHE = new HashMap<>();
+	private static long cacheHits = 0;
+	private static long cacheRebuilds = 0;
+
 	public static <T extends RebornRecipe> List<T> getRecipes(World world, RecipeType<T> type) {
-		return streamRecipeEntries(world, type).map(RecipeEntry::value).toList();
+		return getCachedRecipes(world, type).recipes;
 	}
 
 	public static <T extends RebornRecipe> List<RecipeEntry<T>> getRecipeEntries(World world, RecipeType<T> type) {
-		return streamRecipeEntries(world, type).toList();
+		return getCachedRecipes(world, type).entries;
+	}
+
+	/**
+	 * Get the item index for a recipe type. The index is built on first use and kept until the next data pack reload.
+	 *
+	 * @param world {@link World} The server world
+	 * @param type {@link RecipeType} The recipe type to index
+	 * @return {@link RecipeIndex} The index of all recipes of the given type
+	 */
+	public static <T extends RebornRecipe> RecipeIndex<T> getRecipeIndex(World world, RecipeType<T> type) {
+		CachedRecipes<T> cached = getCachedRecipes(world, type);
+		if (cached.index == null) {
+			cached.index = new RecipeIndex<>(cached.entries);
+		}
+		return cached.index;
+	}
+
+	/**
+	 * Get the recipes of a type keyed by the fluid they consume. Like the item index it is built on first use
+	 * and kept until the next data pack reload. The first recipe wins if several recipes use the same fluid.
+	 *
+	 * @param world {@link World} The server world
+	 * @param type {@link RecipeType} The recipe type to index
+	 * @param fluidGetter {@link Function} Fluid of a recipe, always the same function for a recipe type
+	 * @return {@link Map} Recipes by fluid
+	 */
+	public static <T extends RebornRecipe> Map<Fluid, T> getFluidIndex(World world, RecipeType<T> type, Function<T, Fluid> fluidGetter) {
+		CachedRecipes<T> cached = getCachedRecipes(world, type);
+		if (cached.fluidIndex == null) {
+			Map<Fluid, T> fluidIndex = new IdentityHashMap<>();
+			for (T recipe : cached.recipes) {
+				fluidIndex.putIfAbsent(fluidGetter.apply(recipe), recipe);
+			}
+			cached.fluidIndex = fluidIndex;
+		}
+		return cached.fluidIndex;
+	}
+
+	/**
+	 * Drop all cached recipe data, called when the data packs are reloaded or the server stops.
+	 */
+	public static void invalidateCaches() {
+		RECIPE_CACHE.clear();
 	}
 
-	private static <T extends RebornRecipe> Stream<RecipeEntry<T>> streamRecipeEntries(World world, RecipeType<T> type) {
+	/**
+	 * @return The number of recipe lookups served from the cache since startup
+	 */
+	public static long getCacheHits() {
+		return cacheHits;
+	}
+
+	/**
+	 * @return The number of times the recipes of a type were collected from the recipe manager since startup
+	 */
+	public static long getCacheRebuilds() {
+		return cacheRebuilds;
+	}
+
+	@SuppressWarnings("unchecked")
+	private static <T extends RebornRecipe> CachedRecipes<T> getCachedRecipes(World world, RecipeType<T> type) {
 		if (!(world instanceof ServerWorld serverWorld)) {
 			throw new IllegalArgumentException("World must be a ServerWorld");
 		}
 
-		return serverWorld.getRecipeManager().values().stream()
+		CachedRecipes<T> cached = (CachedRecipes<T>) RECIPE_CACHE.get(type);
+		if (cached != null) {
+			cacheHits++;
+			return cached;
+		}
+
+		cacheRebuilds++;
+		List<RecipeEntry<T>> entries = serverWorld.getRecipeManager().values().stream()
 			.filter(recipe -> recipe.value().getType() == type)
-			.map(recipe -> (RecipeEntry<T>) recipe);
+			.map(recipe -> (RecipeEntry<T>) recipe)
+			.toList();
+		cached = new CachedRecipes<>(entries, entries.stream().map(RecipeEntry::value).toList());
+		RECIPE_CACHE.put(type, cached);
+		return cached;
+	}
+
+	/**
+	 * Immutable recipe lists of a single type, valid until the next data pack reload.
+	 */
+	private static final class CachedRecipes<T extends RebornRecipe> {
+		private final List<RecipeEntry<T>> entries;
+		private final List<T> recipes;
+		// Built on first use, most recipe types are never looked up by item.
+		private RecipeIndex<T> index;
+		private Map<Fluid, T> fluidIndex;
+
+		private CachedRecipes(List<RecipeEntry<T>> entries, List<T> recipes) {
+			this.entries = entries;
+			this.recipes = recipes;
+		}
 	}
 
 	/**
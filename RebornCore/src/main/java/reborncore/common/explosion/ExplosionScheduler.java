@@ -0,0 +1,75 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.explosion;
+
+import net.minecraft.server.world.ServerWorld;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Runs {@link RebornExplosion}s which don't fit into the block budget of a single tick over the next ticks.
+ */
+public final class ExplosionScheduler {
+
+	private static final Map<ServerWorld, List<RebornExplosion>> RUNNING = new IdentityHashMap<>();
+
+	private ExplosionScheduler() {
+	}
+
+	static void schedule(ServerWorld world, RebornExplosion explosion) {
+		RUNNING.computeIfAbsent(world, w -> new ArrayList<>()).add(explosion);
+	}
+
+	public static void tick(ServerWorld world) {
+		List<RebornExplosion> explosions = RUNNING.get(world);
+		if (explosions == null) {
+			return;
+		}
+		// Each explosion removes up to its own budget of blocks per tick
+		explosions.removeIf(RebornExplosion::tick);
+		if (explosions.isEmpty()) {
+			RUNNING.remove(world);
+		}
+	}
+
+	/**
+	 * Finishes all running explosions, so the worlds aren't saved with half removed spheres
+	 */
+	public static void finishAll() {
+		for (List<RebornExplosion> explosions : RUNNING.values()) {
+			for (RebornExplosion explosion : explosions) {
+				explosion.finish();
+			}
+		}
+		RUNNING.clear();
+	}
+
+	public static void onWorldUnload(ServerWorld world) {
+		RUNNING.remove(world);
+	}
+}
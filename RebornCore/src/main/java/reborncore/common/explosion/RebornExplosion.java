@@ -24,12 +24,23 @@
 
 package reborncore.common.explosion;
 
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.longs.LongList;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
 import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.entity.LivingEntity;
+import net.minecraft.server.world.ServerChunkManager;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.Heightmap;
+import net.minecraft.world.chunk.ChunkSection;
+import net.minecraft.world.chunk.WorldChunk;
+import net.minecraft.world.chunk.light.LightingProvider;
 import net.minecraft.world.explosion.ExplosionImpl;
 import org.apache.commons.lang3.time.StopWatch;
 import org.jetbrains.annotations.NotNull;
@@ -41,6 +52,11 @@ import java.util.List;
 
 /**
  * Created by modmuss50 on 12/03/2016.
+ * <p>
+ * Removes a sphere of blocks section by section. Blocks are written to the chunk sections directly, neighbor
+ * updates are only sent from the surface of the sphere once it is removed, and light is only checked on the
+ * surface and where light sources were removed. Clients get the changes as section delta packets.
+ * Large spheres are spread over several ticks, see {@link #setBlocksPerTick(int)}.
  */
 public class RebornExplosion extends ExplosionImpl {
 	final BlockPos center;
@@ -49,10 +65,27 @@ public class RebornExplosion extends ExplosionImpl {
 	@Nullable
 	LivingEntity livingBase;
 
+	private int blocksPerTick = Integer.MAX_VALUE;
+	// Radius of the removed sphere and its square
+	private final int sphereRadius;
+	private final int sphereRadiusSq;
+	// Half height of the sphere in each column, -1 outside, indexed by (x + radius) * size + z + radius
+	private final int[] halfHeights;
+	private long[] sections;
+	private int sectionIndex = 0;
+	// Removed blocks next to blocks outside the sphere, their neighbors are updated at the end
+	private final LongList surface = new LongArrayList();
+	// Removed blocks whose light is checked once the sky light surface of their chunk is refreshed
+	private final LongList lightChecks = new LongArrayList();
+	private final StopWatch watch = new StopWatch();
+
 	public RebornExplosion(@NotNull BlockPos center, @NotNull ServerWorld world, int radius) {
 		super(world, null, null, null, center.toCenterPos(), radius, false, DestructionType.DESTROY);
 		this.center = center;
 		this.radius = radius;
+		this.sphereRadius = radius - 2;
+		this.sphereRadiusSq = sphereRadius * sphereRadius;
+		this.halfHeights = computeHalfHeights();
 	}
 
 	public void setLivingBase(@Nullable LivingEntity livingBase) {
@@ -64,26 +97,187 @@ public class RebornExplosion extends ExplosionImpl {
 		return livingBase;
 	}
 
+	/**
+	 * @param blocksPerTick {@code int} Blocks to remove before the rest of the explosion is moved to the next tick,
+	 *                      whole sections are always finished
+	 */
+	public void setBlocksPerTick(int blocksPerTick) {
+		this.blocksPerTick = Math.max(1, blocksPerTick);
+	}
+
 	@Override
 	public void explode() {
-		StopWatch watch = new StopWatch();
+		if (sphereRadius < 0) {
+			return;
+		}
 		watch.start();
-		for (int tx = -radius; tx < radius + 1; tx++) {
-			for (int ty = -radius; ty < radius + 1; ty++) {
-				for (int tz = -radius; tz < radius + 1; tz++) {
-					if (Math.sqrt(Math.pow(tx, 2) + Math.pow(ty, 2) + Math.pow(tz, 2)) <= radius - 2) {
-						BlockPos pos = center.add(tx, ty, tz);
-						BlockState state = getWorld().getBlockState(pos);
-						Block block = state.getBlock();
-						if (block != Blocks.BEDROCK && !state.isAir()) {
-							block.onDestroyedByExplosion(getWorld(), pos, this);
-							getWorld().setBlockState(pos, Blocks.AIR.getDefaultState(), 3);
-						}
+		sections = computeSections();
+		if (!tick()) {
+			ExplosionScheduler.schedule(getWorld(), this);
+		}
+	}
+
+	/**
+	 * Removes the next sections, up to the block budget
+	 *
+	 * @return {@code boolean} True if the explosion is done
+	 */
+	boolean tick() {
+		ServerWorld world = getWorld();
+		LongSet changedChunks = new LongOpenHashSet();
+		int removed = 0;
+		while (sectionIndex < sections.length && removed < blocksPerTick) {
+			long section = sections[sectionIndex++];
+			int sectionRemoved = explodeSection(world, section);
+			if (sectionRemoved > 0) {
+				removed += sectionRemoved;
+				changedChunks.add(ChunkPos.toLong(ChunkSectionPos.unpackX(section), ChunkSectionPos.unpackZ(section)));
+			}
+		}
+
+		// Once per chunk rather than for every removed block, WorldChunk.setBlockState would update both per block
+		for (long chunkPos : changedChunks) {
+			WorldChunk chunk = world.getChunk(ChunkPos.getPackedX(chunkPos), ChunkPos.getPackedZ(chunkPos));
+			Heightmap.populateHeightmaps(chunk, chunk.getStatus().getHeightmapTypes());
+			chunk.getChunkSkyLight().refreshSurfaceY(chunk);
+			chunk.markNeedsSaving();
+		}
+		// The light engine reads the sky light surface, so the checks wait until it is refreshed
+		LightingProvider lightingProvider = world.getChunkManager().getLightingProvider();
+		BlockPos.Mutable lightPos = new BlockPos.Mutable();
+		for (int i = 0; i < lightChecks.size(); i++) {
+			lightingProvider.checkBlock(lightPos.set(lightChecks.getLong(i)));
+		}
+		lightChecks.clear();
+
+		if (sectionIndex < sections.length) {
+			return false;
+		}
+		BlockPos.Mutable pos = new BlockPos.Mutable();
+		for (int i = 0; i < surface.size(); i++) {
+			world.updateNeighborsAlways(pos.set(surface.getLong(i)), Blocks.AIR);
+		}
+		surface.clear();
+		RebornCore.LOGGER.info("The explosion took" + watch + " to explode");
+		return true;
+	}
+
+	/**
+	 * Removes everything left at once
+	 */
+	void finish() {
+		blocksPerTick = Integer.MAX_VALUE;
+		tick();
+	}
+
+	private int explodeSection(ServerWorld world, long sectionPos) {
+		int sectionX = ChunkSectionPos.unpackX(sectionPos);
+		int sectionY = ChunkSectionPos.unpackY(sectionPos);
+		int sectionZ = ChunkSectionPos.unpackZ(sectionPos);
+		WorldChunk chunk = world.getChunk(sectionX, sectionZ);
+		int index = chunk.sectionCoordToIndex(sectionY);
+		if (index < 0 || index >= chunk.getSectionArray().length) {
+			return 0;
+		}
+		ChunkSection section = chunk.getSection(index);
+		if (section.isEmpty()) {
+			return 0;
+		}
+
+		ServerChunkManager chunkManager = world.getChunkManager();
+		LightingProvider lightingProvider = chunkManager.getLightingProvider();
+		BlockState air = Blocks.AIR.getDefaultState();
+		BlockPos.Mutable pos = new BlockPos.Mutable();
+		int size = radius * 2 + 1;
+		int minX = ChunkSectionPos.getBlockCoord(sectionX);
+		int minY = ChunkSectionPos.getBlockCoord(sectionY);
+		int minZ = ChunkSectionPos.getBlockCoord(sectionZ);
+		int removed = 0;
+		for (int x = Math.max(minX, center.getX() - sphereRadius); x <= Math.min(minX + 15, center.getX() + sphereRadius); x++) {
+			int dx = x - center.getX();
+			for (int z = Math.max(minZ, center.getZ() - sphereRadius); z <= Math.min(minZ + 15, center.getZ() + sphereRadius); z++) {
+				int dz = z - center.getZ();
+				int halfHeight = halfHeights[(dx + radius) * size + dz + radius];
+				if (halfHeight < 0) {
+					continue;
+				}
+				for (int y = Math.max(minY, center.getY() - halfHeight); y <= Math.min(minY + 15, center.getY() + halfHeight); y++) {
+					BlockState state = section.getBlockState(x & 15, y & 15, z & 15);
+					if (state.isAir() || state.isOf(Blocks.BEDROCK)) {
+						continue;
+					}
+					pos.set(x, y, z);
+					Block block = state.getBlock();
+					block.onDestroyedByExplosion(world, pos, this);
+					if (state.hasBlockEntity()) {
+						// Let the world remove the block entity, neighbors are still updated at the end
+						world.setBlockState(pos, air, Block.NOTIFY_LISTENERS);
+					} else {
+						section.setBlockState(x & 15, y & 15, z & 15, air, false);
+						world.onBlockChanged(pos, state, air);
+						chunkManager.markForUpdate(pos);
+					}
+					int dy = y - center.getY();
+					if (isSurface(dx, dy, dz)) {
+						surface.add(pos.asLong());
+						// Light spreads into the sphere from its surface
+						lightChecks.add(pos.asLong());
+					} else if (state.getLuminance() > 0 && !state.hasBlockEntity()) {
+						lightChecks.add(pos.asLong());
 					}
+					removed++;
 				}
 			}
 		}
-		RebornCore.LOGGER.info("The explosion took" + watch + " to explode");
+		if (removed > 0 && section.isEmpty()) {
+			lightingProvider.setSectionStatus(ChunkSectionPos.from(sectionX, sectionY, sectionZ), true);
+		}
+		return removed;
+	}
+
+	private boolean isSurface(int dx, int dy, int dz) {
+		int distanceSq = dx * dx + dy * dy + dz * dz;
+		return distanceSq + 2 * Math.abs(dx) + 1 > sphereRadiusSq
+			|| distanceSq + 2 * Math.abs(dy) + 1 > sphereRadiusSq
+			|| distanceSq + 2 * Math.abs(dz) + 1 > sphereRadiusSq;
+	}
+
+	private int[] computeHalfHeights() {
+		int size = radius * 2 + 1;
+		int[] heights = new int[size * size];
+		for (int dx = -radius; dx <= radius; dx++) {
+			for (int dz = -radius; dz <= radius; dz++) {
+				int remaining = sphereRadiusSq - dx * dx - dz * dz;
+				int height = -1;
+				if (sphereRadius >= 0 && remaining >= 0) {
+					height = (int) Math.sqrt(remaining);
+					while (height * height > remaining) height--;
+					while ((height + 1) * (height + 1) <= remaining) height++;
+				}
+				heights[(dx + radius) * size + dz + radius] = height;
+			}
+		}
+		return heights;
+	}
+
+	private long[] computeSections() {
+		int minX = ChunkSectionPos.getSectionCoord(center.getX() - sphereRadius);
+		int minY = ChunkSectionPos.getSectionCoord(center.getY() - sphereRadius);
+		int minZ = ChunkSectionPos.getSectionCoord(center.getZ() - sphereRadius);
+		int maxX = ChunkSectionPos.getSectionCoord(center.getX() + sphereRadius);
+		int maxY = ChunkSectionPos.getSectionCoord(center.getY() + sphereRadius);
+		int maxZ = ChunkSectionPos.getSectionCoord(center.getZ() + sphereRadius);
+		long[] result = new long[(maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1)];
+		int i = 0;
+		// Chunk by chunk, so a tick touches as few chunks as possible
+		for (int x = minX; x <= maxX; x++) {
+			for (int z = minZ; z <= maxZ; z++) {
+				for (int y = maxY; y >= minY; y--) {
+					result[i++] = ChunkSectionPos.asLong(x, y, z);
+				}
+			}
+		}
+		return result;
 	}
 
 	@Nullable
@@ -95,16 +289,19 @@ public class RebornExplosion extends ExplosionImpl {
 	@Override
 	public List<BlockPos> getBlocksToDestroy() {
 		List<BlockPos> poses = new ArrayList<>();
-		for (int tx = -radius; tx < radius + 1; tx++) {
-			for (int ty = -radius; ty < radius + 1; ty++) {
-				for (int tz = -radius; tz < radius + 1; tz++) {
-					if (Math.sqrt(Math.pow(tx, 2) + Math.pow(ty, 2) + Math.pow(tz, 2)) <= radius - 2) {
-						BlockPos pos = center.add(tx, ty, tz);
-						BlockState state = getWorld().getBlockState(pos);
-						Block block = state.getBlock();
-						if (block != Blocks.BEDROCK && !state.isAir()) {
-							poses.add(pos);
-						}
+		if (sphereRadius < 0) {
+			return poses;
+		}
+		int size = radius * 2 + 1;
+		for (int tx = -sphereRadius; tx <= sphereRadius; tx++) {
+			for (int tz = -sphereRadius; tz <= sphereRadius; tz++) {
+				int halfHeight = halfHeights[(tx + radius) * size + tz + radius];
+				for (int ty = -halfHeight; ty <= halfHeight; ty++) {
+					BlockPos pos = center.add(tx, ty, tz);
+					BlockState state = getWorld().getBlockState(pos);
+					Block block = state.getBlock();
+					if (block != Blocks.BEDROCK && !state.isAir()) {
+						poses.add(pos);
 					}
 				}
 			}
@@ -29,6 +29,7 @@ import net.minecraft.util.math.ChunkPos;
 import net.minecraft.world.World;
 import net.minecraft.world.chunk.Chunk;
 import reborncore.RebornCore;
+import reborncore.common.util.TickProfiler;
 import reborncore.common.util.WorldUtils;
 
 import java.util.*;
@@ -100,7 +101,9 @@ public class MultiblockWorldRegistry {
 						deadControllers.add(controller);
 					} else {
 						// Run the game logic for this world
+						long begin = TickProfiler.begin(worldObj);
 						controller.updateMultiblockEntity();
+						TickProfiler.end(begin, TickProfiler.Section.MULTIBLOCK, controller.getClass(), worldObj, controller.getReferenceCoord());
 					}
 				}
 			}
@@ -0,0 +1,140 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.network;
+
+import io.netty.buffer.Unpooled;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.fabricmc.fabric.api.networking.v1.PlayerLookup;
+import net.minecraft.block.entity.BlockEntity;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.registry.DynamicRegistryManager;
+import net.minecraft.server.network.ServerPlayerEntity;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.ChunkPos;
+import org.jetbrains.annotations.Nullable;
+import reborncore.common.blockentity.SyncedFields;
+import reborncore.common.network.clientbound.BlockEntityFieldsPayload;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Sends the changed {@link SyncedFields} of block entities at the end of the world tick. All block entities of a chunk
+ * that changed during the tick are sent in one payload to the players tracking that chunk.
+ * <p>
+ * Only used on the server thread.
+ */
+public final class FieldSyncManager {
+
+	private static final Map<ServerWorld, Long2ObjectMap<List<BlockEntity>>> PENDING = new IdentityHashMap<>();
+
+	// Reused for every payload, only the final byte arrays are allocated
+	@Nullable
+	private static DynamicRegistryManager registryManager;
+	private static RegistryByteBuf payloadBuffer;
+	private static RegistryByteBuf entryBuffer;
+	private static RegistryByteBuf scratchBuffer;
+
+	private FieldSyncManager() {
+	}
+
+	/**
+	 * Sends the changed fields of the block entity to the tracking players at the end of the tick
+	 *
+	 * @param blockEntity {@link BlockEntity} A block entity implementing {@link SyncedFields.Provider}
+	 */
+	public static <T extends BlockEntity & SyncedFields.Provider> void queue(T blockEntity) {
+		if (!(blockEntity.getWorld() instanceof ServerWorld world)) {
+			return;
+		}
+		SyncedFields fields = blockEntity.getSyncedFields();
+		if (fields.isQueued() || fields.isEmpty()) {
+			return;
+		}
+		fields.setQueued(true);
+		PENDING.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>())
+			.computeIfAbsent(ChunkPos.toLong(blockEntity.getPos()), c -> new ArrayList<>())
+			.add(blockEntity);
+	}
+
+	public static void flush(ServerWorld world) {
+		Long2ObjectMap<List<BlockEntity>> chunks = PENDING.remove(world);
+		if (chunks == null) {
+			return;
+		}
+		prepareBuffers(world.getRegistryManager());
+
+		for (Long2ObjectMap.Entry<List<BlockEntity>> chunk : chunks.long2ObjectEntrySet()) {
+			Collection<ServerPlayerEntity> players = PlayerLookup.tracking(world, new ChunkPos(chunk.getLongKey()));
+			RegistryByteBuf buf = payloadBuffer;
+			buf.clear();
+
+			for (BlockEntity blockEntity : chunk.getValue()) {
+				SyncedFields fields = ((SyncedFields.Provider) blockEntity).getSyncedFields();
+				fields.setQueued(false);
+				// Players which start tracking later get the whole block entity with the chunk
+				if (players.isEmpty() || blockEntity.isRemoved()) {
+					continue;
+				}
+
+				entryBuffer.clear();
+				if (fields.write(entryBuffer, scratchBuffer)) {
+					buf.writeLong(blockEntity.getPos().asLong());
+					buf.writeVarInt(entryBuffer.readableBytes());
+					buf.writeBytes(entryBuffer, entryBuffer.readerIndex(), entryBuffer.readableBytes());
+				}
+			}
+
+			if (buf.isReadable()) {
+				byte[] data = new byte[buf.readableBytes()];
+				buf.readBytes(data);
+				NetworkManager.send(new BlockEntityFieldsPayload(data), players);
+			}
+		}
+	}
+
+	public static void onWorldUnload(ServerWorld world) {
+		PENDING.remove(world);
+	}
+
+	public static void clear() {
+		PENDING.clear();
+		registryManager = null;
+		payloadBuffer = entryBuffer = scratchBuffer = null;
+	}
+
+	private static void prepareBuffers(DynamicRegistryManager registries) {
+		if (registryManager != registries) {
+			registryManager = registries;
+			payloadBuffer = new RegistryByteBuf(Unpooled.buffer(), registries);
+			entryBuffer = new RegistryByteBuf(Unpooled.buffer(), registries);
+			scratchBuffer = new RegistryByteBuf(Unpooled.buffer(), registries);
+		}
+	}
+}
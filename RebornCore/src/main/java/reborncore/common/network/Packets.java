@@ -26,6 +26,7 @@ package reborncore.common.network;
 
 import net.fabricmc.fabric.api.networking.v1.PayloadTypeRegistry;
 import net.minecraft.network.RegistryByteBuf;
+import reborncore.common.network.clientbound.BlockEntityFieldsPayload;
 import reborncore.common.network.clientbound.ChunkSyncPayload;
 import reborncore.common.network.clientbound.CustomDescriptionPayload;
 import reborncore.common.network.clientbound.FluidConfigSyncPayload;
@@ -47,6 +48,7 @@ public class Packets {
 	}
 
 	private static void clientbound(PayloadTypeRegistry<RegistryByteBuf> registry) {
+		registry.register(BlockEntityFieldsPayload.ID, BlockEntityFieldsPayload.PACKET_CODEC);
 		registry.register(ChunkSyncPayload.ID, ChunkSyncPayload.PACKET_CODEC);
 		registry.register(CustomDescriptionPayload.ID, CustomDescriptionPayload.PACKET_CODEC);
 		registry.register(FluidConfigSyncPayload.ID, FluidConfigSyncPayload.PACKET_CODEC);
@@ -44,6 +44,7 @@ public class ServerBoundPackets {
 			var machine = payload.getBlockEntity(MachineBaseBlockEntity.class, context.player());
 			machine.fluidConfiguration.updateFluidConfig(payload.fluidConfiguration());
 			machine.markDirty();
+			machine.wake();
 
 			NetworkManager.sendToTracking(new FluidConfigSyncPayload(payload.pos(), machine.fluidConfiguration), machine);
 
@@ -60,6 +61,7 @@ public class ServerBoundPackets {
 				machine.getSlotConfiguration().updateSlotDetails(slotDetail);
 			}
 			machine.markDirty();
+			machine.wake();
 
 			NetworkManager.sendToWorld(new SlotSyncPayload(payload.pos(), machine.getSlotConfiguration()), (ServerWorld) machine.getWorld());
 		});
@@ -72,6 +74,7 @@ public class ServerBoundPackets {
 			}
 			config.setInput(payload.input());
 			config.setOutput(payload.output());
+			machine.wake();
 
 			// Syncs back to the client
 			NetworkManager.sendToTracking(new FluidConfigSyncPayload(payload.pos(), machine.fluidConfiguration), machine);
@@ -89,6 +92,7 @@ public class ServerBoundPackets {
 			holder.setOutput(payload.output());
 			holder.setFilter(payload.filter());
 			holder.setPriority(payload.priority());
+			machine.wake();
 
 			//Syncs back to the client
 			NetworkManager.sendToAll(new SlotSyncPayload(payload.pos(), machine.getSlotConfiguration()), context.player().getServer());
@@ -98,6 +102,7 @@ public class ServerBoundPackets {
 			var machine = payload.getBlockEntity(MachineBaseBlockEntity.class, context.player());
 			machine.getSlotConfiguration().getSlotDetails(payload.slotConfig().getSlotID()).updateSlotConfig(payload.slotConfig());
 			machine.markDirty();
+			machine.wake();
 
 			NetworkManager.sendToWorld(new SlotSyncPayload(payload.pos(), machine.getSlotConfiguration()), (ServerWorld) machine.getWorld());
 		});
@@ -30,9 +30,10 @@ import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.network.packet.CustomPayload;
 import net.minecraft.util.Identifier;
 
-public record ScreenHandlerUpdatePayload(byte[] data) implements CustomPayload {
+public record ScreenHandlerUpdatePayload(int syncId, byte[] data) implements CustomPayload {
 	public static final Id<ScreenHandlerUpdatePayload> ID = new Id<>(Identifier.of("reborncore:screen_handler_update"));
 	public static final PacketCodec<RegistryByteBuf, ScreenHandlerUpdatePayload> PACKET_CODEC = PacketCodec.tuple(
+		PacketCodecs.VAR_INT, ScreenHandlerUpdatePayload::syncId,
 		PacketCodecs.BYTE_ARRAY, ScreenHandlerUpdatePayload::data,
 		ScreenHandlerUpdatePayload::new
 	);
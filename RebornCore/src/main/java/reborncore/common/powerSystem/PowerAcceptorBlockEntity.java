@@ -24,6 +24,7 @@
 
 package reborncore.common.powerSystem;
 
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.fabricmc.fabric.api.transfer.v1.context.ContainerItemContext;
 import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
 import net.minecraft.block.BlockState;
@@ -32,6 +33,7 @@ import net.minecraft.block.entity.BlockEntityType;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
 import net.minecraft.util.math.BlockPos;
@@ -69,6 +71,12 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 			}
 			return 0;
 		}
+
+		@Override
+		protected void onFinalCommit() {
+			super.onFinalCommit();
+			PowerAcceptorBlockEntity.this.wake();
+		}
 	};
 	private RcEnergyTier blockEntityPowerTier;
 
@@ -78,6 +86,15 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 	public long powerChange;
 	public long powerLastTick;
 	public boolean checkOverfill = true; // Set false to disable overfill check.
+	/**
+	 * Adjacent caches, used to quickly query the energy storages next to this block entity.
+	 */
+	@SuppressWarnings("unchecked")
+	private final BlockApiCache<EnergyStorage, Direction>[] adjacentCaches = new BlockApiCache[6];
+	/**
+	 * Bitmask of sides that had no energy storage, these are skipped until the next neighbor update.
+	 */
+	private int emptySides = 0;
 
 	public PowerAcceptorBlockEntity(BlockEntityType<?> type, BlockPos pos, BlockState state) {
 		super(type, pos, state);
@@ -338,18 +355,52 @@ public abstract class PowerAcceptorBlockEntity extends MachineBaseBlockEntity im
 		}
 
 		for (Direction side : Direction.values()) {
+			EnergyStorage target = findAdjacentStorage(side);
+			if (target == null) {
+				continue;
+			}
 			EnergyStorageUtil.move(
 					getSideEnergyStorage(side),
-					EnergyStorage.SIDED.find(world, pos.offset(side), side.getOpposite()),
+					target,
 					Long.MAX_VALUE,
 					null
 			);
 		}
 
+		updatePowerChange();
+	}
+
+	/**
+	 * Updates the energy change per tick from the energy stored on the last call, see {@link #getPowerChange()}
+	 */
+	protected void updatePowerChange() {
 		powerChange = getStored() - powerLastTick;
 		powerLastTick = getStored();
 	}
 
+	@Nullable
+	private EnergyStorage findAdjacentStorage(Direction side) {
+		int sideBit = 1 << side.ordinal();
+		if ((emptySides & sideBit) != 0) {
+			return null;
+		}
+		if (adjacentCaches[side.ordinal()] == null) {
+			adjacentCaches[side.ordinal()] = BlockApiCache.create(EnergyStorage.SIDED, (ServerWorld) world, pos.offset(side));
+		}
+		EnergyStorage storage = adjacentCaches[side.ordinal()].find(side.getOpposite());
+		// Loading a neighbouring chunk does not cause a neighbor update, so only remember sides that are loaded.
+		if (storage == null && world.isChunkLoaded(pos.offset(side))) {
+			emptySides |= sideBit;
+		}
+		return storage;
+	}
+
+	@Override
+	public void onNeighborUpdate() {
+		super.onNeighborUpdate();
+		emptySides = 0;
+	}
+
 	@Override
 	public void readNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
 		super.readNbt(tag, registryLookup);
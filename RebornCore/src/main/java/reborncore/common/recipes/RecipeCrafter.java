@@ -27,7 +27,9 @@ package reborncore.common.recipes;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.item.ItemStack;
+import net.minecraft.item.Item;
 import net.minecraft.nbt.NbtCompound;
+import net.minecraft.recipe.RecipeEntry;
 import net.minecraft.recipe.RecipeType;
 import net.minecraft.registry.DynamicRegistryManager;
 import net.minecraft.util.math.BlockPos;
@@ -36,15 +38,18 @@ import reborncore.RebornCore;
 import reborncore.api.recipe.IRecipeCrafterProvider;
 import reborncore.common.blocks.BlockMachineBase;
 import reborncore.common.crafting.RebornRecipe;
+import reborncore.common.crafting.RecipeIndex;
 import reborncore.common.crafting.SizedIngredient;
 import reborncore.common.crafting.RecipeUtils;
 import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.util.ItemUtils;
 import reborncore.common.util.RebornInventory;
+import reborncore.common.util.TickProfiler;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Predicate;
 
 /**
  * Use this in your blockEntity entity to craft things
@@ -133,6 +138,12 @@ public class RecipeCrafter implements IUpgradeHandler {
 		if (blockEntity.getWorld() == null || blockEntity.getWorld().isClient) {
 			return;
 		}
+		long begin = TickProfiler.begin(blockEntity.getWorld());
+		updateCrafting();
+		TickProfiler.end(begin, TickProfiler.Section.RECIPE, blockEntity.getType(), blockEntity.getWorld(), blockEntity.getPos());
+	}
+
+	private void updateCrafting() {
 		ticksSinceLastChange++;
 		if (cachedWorldTime == 0){
 			cachedWorldTime = blockEntity.getWorld().getTime();
@@ -207,21 +218,22 @@ public class RecipeCrafter implements IUpgradeHandler {
 	 */
 	public void updateCurrentRecipe() {
 		currentTickTime = 0;
-		for (RebornRecipe recipe : RecipeUtils.getRecipes(blockEntity.getWorld(), recipeType)) {
+		RebornRecipe recipe = findRecipe(candidate -> {
 			// This checks to see if it has all the inputs
-			if (!hasAllInputs(recipe)) continue;
-			if (!recipe.canCraft(blockEntity)) continue;
+			if (!hasAllInputs(candidate)) return false;
+			if (!candidate.canCraft(blockEntity)) return false;
 
-			final List<ItemStack> outputs = recipe.outputs();
+			final List<ItemStack> outputs = candidate.outputs();
 
 			// This checks to see if it can fit all the outputs
-			boolean hasOutputSpace = true;
 			for (int i = 0; i < outputs.size(); i++) {
 				if (!canFitOutput(outputs.get(i), outputSlots[i])) {
-					hasOutputSpace = false;
+					return false;
 				}
 			}
-			if (!hasOutputSpace) continue;
+			return true;
+		});
+		if (recipe != null) {
 			// Sets the current recipe then syncs
 			setCurrentRecipe(recipe);
 			this.currentNeededTicks = Math.max((int) (currentRecipe.time() * (1.0 - getSpeedMultiplier())), 1);
@@ -233,6 +245,44 @@ public class RecipeCrafter implements IUpgradeHandler {
 		setIsActive();
 	}
 
+	/**
+	 * Finds the first recipe matching the predicate. Only recipes that accept an item currently in one of the input
+	 * slots are tested, looked up through the {@link RecipeIndex} of the recipe type.
+	 *
+	 * @param predicate {@link Predicate} The check a recipe has to pass
+	 * @return {@link RebornRecipe} The first matching recipe, or {@code null} if none matches
+	 */
+	@Nullable
+	private RebornRecipe findRecipe(Predicate<RebornRecipe> predicate) {
+		RecipeIndex<? extends RebornRecipe> index = RecipeUtils.getRecipeIndex(blockEntity.getWorld(), recipeType);
+		for (int i = 0; i < inputSlots.length; i++) {
+			ItemStack stack = inventory.getStack(inputSlots[i]);
+			if (stack.isEmpty() || isInPreviousSlot(stack.getItem(), i)) {
+				continue;
+			}
+			for (RecipeEntry<? extends RebornRecipe> entry : index.getEntries(stack.getItem())) {
+				if (predicate.test(entry.value())) {
+					return entry.value();
+				}
+			}
+		}
+		for (RecipeEntry<? extends RebornRecipe> entry : index.getUnindexed()) {
+			if (predicate.test(entry.value())) {
+				return entry.value();
+			}
+		}
+		return null;
+	}
+
+	private boolean isInPreviousSlot(Item item, int slotIndex) {
+		for (int i = 0; i < slotIndex; i++) {
+			if (inventory.getStack(inputSlots[i]).isOf(item)) {
+				return true;
+			}
+		}
+		return false;
+	}
+
 	public boolean hasAllInputs() {
 		return hasAllInputs(currentRecipe);
 	}
@@ -328,19 +378,19 @@ public class RecipeCrafter implements IUpgradeHandler {
 	}
 
 	public boolean canCraftAgain() {
-		for (RebornRecipe recipe : RecipeUtils.getRecipes(blockEntity.getWorld(), recipeType)) {
-			if (recipe.canCraft(blockEntity) && hasAllInputs(recipe)) {
-				final List<ItemStack> outputs = recipe.outputs();
+		RebornRecipe recipe = findRecipe(candidate -> candidate.canCraft(blockEntity) && hasAllInputs(candidate));
+		if (recipe == null) {
+			return false;
+		}
 
-				for (int i = 0; i < outputs.size(); i++) {
-					if (!canFitOutput(outputs.get(i), outputSlots[i])) {
-						return false;
-					}
-				}
-				return !(energy.getEnergy() < recipe.power());
+		final List<ItemStack> outputs = recipe.outputs();
+
+		for (int i = 0; i < outputs.size(); i++) {
+			if (!canFitOutput(outputs.get(i), outputSlots[i])) {
+				return false;
 			}
 		}
-		return false;
+		return !(energy.getEnergy() < recipe.power());
 	}
 
 	public void setIsActive() {
@@ -380,14 +430,7 @@ public class RecipeCrafter implements IUpgradeHandler {
 		// A bit of a hack but should work.
 		ItemStack largeStack = stack.copy();
 		largeStack.setCount(largeStack.getMaxCount());
-		for (RebornRecipe recipe : RecipeUtils.getRecipes(blockEntity.getWorld(), recipeType)) {
-			for (SizedIngredient ingredient : recipe.ingredients()) {
-				if (ingredient.test(largeStack)) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return RecipeUtils.getRecipeIndex(blockEntity.getWorld(), recipeType).isValidInput(largeStack);
 	}
 
 	@Override
@@ -25,32 +25,28 @@
 package reborncore.common.screen;
 
 import io.netty.buffer.Unpooled;
-import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
-import net.fabricmc.fabric.api.networking.v1.PacketByteBufs;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.inventory.CraftingInventory;
 import net.minecraft.inventory.Inventory;
 import net.minecraft.item.ItemStack;
-import net.minecraft.network.PacketByteBuf;
 import net.minecraft.network.RegistryByteBuf;
-import net.minecraft.network.codec.PacketCodec;
 import net.minecraft.screen.ScreenHandler;
 import net.minecraft.screen.ScreenHandlerListener;
 import net.minecraft.screen.ScreenHandlerType;
 import net.minecraft.screen.slot.Slot;
 import net.minecraft.util.math.BlockPos;
 import org.apache.commons.lang3.Range;
+import org.jetbrains.annotations.Nullable;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.network.NetworkManager;
 import reborncore.common.network.clientbound.ScreenHandlerUpdatePayload;
+import reborncore.common.screen.builder.SyncSlot;
 import reborncore.common.screen.builder.SyncedObject;
 import reborncore.common.util.ItemUtils;
 import reborncore.common.util.RangeUtil;
 
-import java.util.HashMap;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Map;
 import java.util.function.Consumer;
 import java.util.function.Predicate;
 
@@ -61,9 +57,12 @@ public class BuiltScreenHandler extends ScreenHandler {
 	private final List<Range<Integer>> playerSlotRanges;
 	private final List<Range<Integer>> blockEntitySlotRanges;
 
-	// Holds the SyncPair along with the last value
-	private final Map<IdentifiedSyncedObject<?>, Object> syncPairCache = new HashMap<>();
-	private final Int2ObjectMap<IdentifiedSyncedObject<?>> syncPairIdLookup = new Int2ObjectOpenHashMap<>();
+	private final List<SyncSlot> syncSlots = new ArrayList<>();
+	// Bit set of the slots which changed since the last update
+	private long[] changedSlots = new long[0];
+	// Reused for every update, only the final byte array is allocated
+	@Nullable
+	private RegistryByteBuf syncBuffer;
 
 	private List<Consumer<CraftingInventory>> craftEvents;
 
@@ -84,13 +83,12 @@ public class BuiltScreenHandler extends ScreenHandler {
 	}
 
 	public void addObjectSync(final List<SyncedObject<?>> syncedObjects) {
-		for (final SyncedObject<?> syncedObject : syncedObjects) {
-			// Add a new sync pair to the cache with a null value
-			int id = syncPairCache.size() + 1;
-			var syncPair = new IdentifiedSyncedObject(syncedObject, id);
-			this.syncPairCache.put(syncPair, null);
-			this.syncPairIdLookup.put(id, syncPair);
-		}
+		addSyncSlots(syncedObjects.stream().map(SyncSlot::of).toList());
+	}
+
+	public void addSyncSlots(final List<SyncSlot> slots) {
+		this.syncSlots.addAll(slots);
+		this.changedSlots = new long[(syncSlots.size() + 63) >> 6];
 	}
 
 	public void addCraftEvents(final List<Consumer<CraftingInventory>> craftEvents) {
@@ -113,64 +111,84 @@ public class BuiltScreenHandler extends ScreenHandler {
 	public void sendContentUpdates() {
 		super.sendContentUpdates();
 
-		for (final ScreenHandlerListener listener : listeners) {
-			sendContentUpdatePacketToListener(listener);
-		}
+		sendSyncUpdate(false);
 	}
 
 	@Override
 	public void addListener(final ScreenHandlerListener listener) {
 		super.addListener(listener);
 
-		sendContentUpdatePacketToListener(listener);
+		// Everyone gets the full state, the client of the new listener doesn't know any of the previous values
+		sendSyncUpdate(true);
 	}
 
-	private void sendContentUpdatePacketToListener(final ScreenHandlerListener listener) {
-		Map<IdentifiedSyncedObject<?>, Object> updatedValues = new HashMap<>();
-
-		this.syncPairCache.replaceAll((identifiedSyncedObject, cached) -> {
-			final Object value = identifiedSyncedObject.get();
+	/**
+	 * Sends the changed values to all listeners, as one payload per tick
+	 *
+	 * @param full {@code boolean} True to send every value instead of only the changed ones
+	 */
+	private void sendSyncUpdate(boolean full) {
+		if (syncSlots.isEmpty() || listeners.isEmpty()) {
+			return;
+		}
+		if (syncBuffer == null) {
+			syncBuffer = new RegistryByteBuf(Unpooled.buffer(), blockEntity.getWorld().getRegistryManager());
+		}
+		RegistryByteBuf buf = syncBuffer;
 
-			if (!value.equals(cached)) {
-				updatedValues.put(identifiedSyncedObject, value);
-				return value;
+		int changed = 0;
+		for (int i = 0; i < syncSlots.size(); i++) {
+			SyncSlot slot = syncSlots.get(i);
+			if (full) {
+				slot.reset();
 			}
-			return null;
-		});
+			if (slot.poll(buf) || full) {
+				changedSlots[i >> 6] |= 1L << i;
+				changed++;
+			}
+		}
 
-		if (updatedValues.isEmpty()) {
+		if (changed == 0) {
 			return;
 		}
 
-		byte[] data = writeScreenHandlerData(updatedValues);
-		ServerPlayerEntityScreenHandlerHelper.getServerPlayerEntity(listener)
-			.ifPresent(serverPlayerEntity -> NetworkManager.sendToPlayer(new ScreenHandlerUpdatePayload(data), serverPlayerEntity));
-	}
-
-	@SuppressWarnings({"rawtypes", "unchecked"})
-	private byte[] writeScreenHandlerData(Map<IdentifiedSyncedObject<?>, Object> updatedValues) {
-		RegistryByteBuf byteBuf = new RegistryByteBuf(PacketByteBufs.create(), blockEntity.getWorld().getRegistryManager());
-
-		byteBuf.writeInt(updatedValues.size());
-		for (Map.Entry<IdentifiedSyncedObject<?>, Object> entry : updatedValues.entrySet()) {
-			PacketCodec codec = entry.getKey().object().codec();
-			byteBuf.writeInt(entry.getKey().id());
-			codec.encode(byteBuf, entry.getValue());
+		buf.clear();
+		buf.writeBoolean(full);
+		buf.writeVarInt(changed);
+		int previous = -1;
+		for (int word = 0; word < changedSlots.length; word++) {
+			long bits = changedSlots[word];
+			while (bits != 0) {
+				int index = (word << 6) + Long.numberOfTrailingZeros(bits);
+				bits &= bits - 1;
+				// Indices are written as the gap to the previous one
+				buf.writeVarInt(index - previous - 1);
+				previous = index;
+				syncSlots.get(index).write(buf);
+			}
+			changedSlots[word] = 0;
 		}
 
-		return byteBuf.array();
+		byte[] data = new byte[buf.readableBytes()];
+		buf.readBytes(data);
+		ScreenHandlerUpdatePayload payload = new ScreenHandlerUpdatePayload(syncId, data);
+		for (final ScreenHandlerListener listener : listeners) {
+			ServerPlayerEntityScreenHandlerHelper.getServerPlayerEntity(listener)
+				.ifPresent(serverPlayerEntity -> NetworkManager.sendToPlayer(payload, serverPlayerEntity));
+		}
 	}
 
-	@SuppressWarnings({"rawtypes", "unchecked"})
 	public void applyScreenHandlerData(byte[] data) {
-		RegistryByteBuf byteBuf = new RegistryByteBuf(new PacketByteBuf(Unpooled.wrappedBuffer(data)), blockEntity.getWorld().getRegistryManager());
-		int size = byteBuf.readInt();
+		RegistryByteBuf byteBuf = new RegistryByteBuf(Unpooled.wrappedBuffer(data), blockEntity.getWorld().getRegistryManager());
+		if (byteBuf.readBoolean()) {
+			syncSlots.forEach(SyncSlot::reset);
+		}
+		int size = byteBuf.readVarInt();
 
+		int index = -1;
 		for (int i = 0; i < size; i++) {
-			int id = byteBuf.readInt();
-			IdentifiedSyncedObject syncedObject = syncPairIdLookup.get(id);
-			Object value = syncedObject.object().codec().decode(byteBuf);
-			syncedObject.set(value);
+			index += byteBuf.readVarInt() + 1;
+			syncSlots.get(index).read(byteBuf);
 		}
 	}
 
@@ -321,14 +339,4 @@ public class BuiltScreenHandler extends ScreenHandler {
 	public ScreenHandlerType<BuiltScreenHandler> getType() {
 		return type;
 	}
-
-	private record IdentifiedSyncedObject<T>(SyncedObject<T> object, int id) {
-		public T get() {
-			return object.getter().get();
-		}
-
-		public void set(T value) {
-			object.setter().accept(value);
-		}
-	}
 }
@@ -51,6 +51,10 @@ import reborncore.common.screen.slot.*;
 import team.reborn.energy.api.EnergyStorageUtil;
 
 import java.util.function.Consumer;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
 
@@ -148,7 +152,17 @@ public class BlockEntityScreenHandlerBuilder {
 	 * @return {@link BlockEntityScreenHandlerBuilder} Inventory which will do the sync
 	 */
 	public <T> BlockEntityScreenHandlerBuilder sync(PacketCodec<? super RegistryByteBuf, T> codec, Supplier<T> supplier, Consumer<T> setter) {
-		this.parent.objectValues.add(new SyncedObject<>(codec, supplier, setter));
+		this.parent.objectValues.add(SyncSlot.of(new SyncedObject<>(codec, supplier, setter)));
+		return this;
+	}
+
+	public BlockEntityScreenHandlerBuilder syncInt(IntSupplier supplier, IntConsumer setter) {
+		this.parent.objectValues.add(SyncSlot.ofInt(supplier, setter));
+		return this;
+	}
+
+	public BlockEntityScreenHandlerBuilder syncLong(LongSupplier supplier, LongConsumer setter) {
+		this.parent.objectValues.add(SyncSlot.ofLong(supplier, setter));
 		return this;
 	}
 
@@ -175,9 +189,9 @@ public class BlockEntityScreenHandlerBuilder {
 
 	public BlockEntityScreenHandlerBuilder syncEnergyValue() {
 		if (this.blockEntity instanceof PowerAcceptorBlockEntity powerAcceptor) {
-			return this.sync(PacketCodecs.VAR_LONG, powerAcceptor::getEnergy, powerAcceptor::setEnergy)
-					.sync(PacketCodecs.VAR_LONG, powerAcceptor::getExtraPowerStorage, powerAcceptor::setExtraPowerStorage)
-					.sync(PacketCodecs.VAR_LONG, powerAcceptor::getPowerChange, powerAcceptor::setPowerChange);
+			return this.syncLong(powerAcceptor::getEnergy, powerAcceptor::setEnergy)
+					.syncLong(powerAcceptor::getExtraPowerStorage, powerAcceptor::setExtraPowerStorage)
+					.syncLong(powerAcceptor::getPowerChange, powerAcceptor::setPowerChange);
 		}
 
 		RebornCore.LOGGER.error(this.inventory + " is not an instance of TilePowerAcceptor! Energy cannot be synced.");
@@ -187,8 +201,8 @@ public class BlockEntityScreenHandlerBuilder {
 	public BlockEntityScreenHandlerBuilder syncCrafterValue() {
 		if (this.blockEntity instanceof IRecipeCrafterProvider recipeCrafter) {
 			return this
-					.sync(PacketCodecs.INTEGER, () -> recipeCrafter.getRecipeCrafter().currentTickTime, (time) -> recipeCrafter.getRecipeCrafter().currentTickTime = time)
-					.sync(PacketCodecs.INTEGER, () -> recipeCrafter.getRecipeCrafter().currentNeededTicks, (ticks) -> recipeCrafter.getRecipeCrafter().currentNeededTicks = ticks);
+					.syncInt(() -> recipeCrafter.getRecipeCrafter().currentTickTime, (time) -> recipeCrafter.getRecipeCrafter().currentTickTime = time)
+					.syncInt(() -> recipeCrafter.getRecipeCrafter().currentNeededTicks, (ticks) -> recipeCrafter.getRecipeCrafter().currentNeededTicks = ticks);
 		}
 
 		RebornCore.LOGGER.error(this.inventory + " is not an instance of IRecipeCrafterProvider! Craft progress cannot be synced.");
@@ -46,7 +46,7 @@ public class ScreenHandlerBuilder {
 	final List<Slot> slots;
 	final List<Range<Integer>> playerInventoryRanges, blockEntityInventoryRanges;
 
-	final List<SyncedObject<?>> objectValues;
+	final List<SyncSlot> objectValues;
 
 	final List<Consumer<CraftingInventory>> craftEvents;
 
@@ -89,7 +89,7 @@ public class ScreenHandlerBuilder {
 				this.playerInventoryRanges,
 				this.blockEntityInventoryRanges, blockEntity);
 		if (!this.objectValues.isEmpty())
-			built.addObjectSync(objectValues);
+			built.addSyncSlots(objectValues);
 		if (!this.craftEvents.isEmpty()) {
 			built.addCraftEvents(this.craftEvents);
 		}
@@ -0,0 +1,300 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2024 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.screen.builder;
+
+import io.netty.buffer.ByteBuf;
+import it.unimi.dsi.fastutil.booleans.BooleanConsumer;
+import net.minecraft.network.RegistryByteBuf;
+import net.minecraft.network.codec.PacketCodec;
+import net.minecraft.network.codec.PacketCodecs;
+
+import java.util.function.BooleanSupplier;
+import java.util.function.IntConsumer;
+import java.util.function.IntSupplier;
+import java.util.function.LongConsumer;
+import java.util.function.LongSupplier;
+
+/**
+ * A value synced from a screen handler on the server to the same screen handler on the client.
+ * <p>
+ * The server {@link #poll polls} every slot each tick and only writes the changed ones. Both sides remember the last
+ * value sent, so numbers are written as the difference to it, which is a single byte for small changes.
+ */
+public abstract class SyncSlot {
+
+	SyncSlot() {
+	}
+
+	/**
+	 * Creates a slot for the synced object, ints, longs and booleans are compared and written without their codec
+	 *
+	 * @param object {@link SyncedObject} The value to sync
+	 * @return {@link SyncSlot} The slot to sync it with
+	 */
+	@SuppressWarnings("unchecked")
+	public static SyncSlot of(SyncedObject<?> object) {
+		PacketCodec<?, ?> codec = object.codec();
+		if (codec == PacketCodecs.INTEGER || codec == PacketCodecs.VAR_INT) {
+			SyncedObject<Integer> value = (SyncedObject<Integer>) object;
+			return ofInt(() -> value.getter().get(), i -> value.setter().accept(i));
+		}
+		if (codec == PacketCodecs.VAR_LONG || codec == PacketCodecs.LONG) {
+			SyncedObject<Long> value = (SyncedObject<Long>) object;
+			return ofLong(() -> value.getter().get(), l -> value.setter().accept(l));
+		}
+		if (codec == PacketCodecs.BOOLEAN) {
+			SyncedObject<Boolean> value = (SyncedObject<Boolean>) object;
+			return ofBoolean(() -> value.getter().get(), b -> value.setter().accept(b));
+		}
+		return new ObjectSlot<>(object);
+	}
+
+	public static SyncSlot ofInt(IntSupplier getter, IntConsumer setter) {
+		return new IntSlot(getter, setter);
+	}
+
+	public static SyncSlot ofLong(LongSupplier getter, LongConsumer setter) {
+		return new LongSlot(getter, setter);
+	}
+
+	public static SyncSlot ofBoolean(BooleanSupplier getter, BooleanConsumer setter) {
+		return new BooleanSlot(getter, setter);
+	}
+
+	/**
+	 * Reads the current value on the server
+	 *
+	 * @param scratch {@link RegistryByteBuf} Buffer which may be used to encode the value, it is cleared before use
+	 * @return {@code boolean} True if the value changed since it was last written
+	 */
+	public abstract boolean poll(RegistryByteBuf scratch);
+
+	/**
+	 * Writes the value read by the last {@link #poll} and remembers it as sent
+	 *
+	 * @param buf {@link RegistryByteBuf} Buffer to write to
+	 */
+	public abstract void write(RegistryByteBuf buf);
+
+	/**
+	 * Reads a value written by {@link #write} on the client and passes it to the setter
+	 *
+	 * @param buf {@link RegistryByteBuf} Buffer to read from
+	 */
+	public abstract void read(RegistryByteBuf buf);
+
+	/**
+	 * Forgets the last sent value, so the next {@link #poll} reports a change. Called on both sides before a full sync.
+	 */
+	public abstract void reset();
+
+	/**
+	 * Like {@link #write}, but writes the whole value instead of the difference. Used when the receivers don't all
+	 * know the previously sent value.
+	 *
+	 * @param buf {@link RegistryByteBuf} Buffer to write to
+	 */
+	public void writeValue(RegistryByteBuf buf) {
+		reset();
+		write(buf);
+	}
+
+	/**
+	 * Reads a value written by {@link #writeValue}
+	 *
+	 * @param buf {@link RegistryByteBuf} Buffer to read from
+	 */
+	public void readValue(RegistryByteBuf buf) {
+		reset();
+		read(buf);
+	}
+
+	private static final class IntSlot extends SyncSlot {
+		private final IntSupplier getter;
+		private final IntConsumer setter;
+		private int current;
+		private int last;
+
+		private IntSlot(IntSupplier getter, IntConsumer setter) {
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		public boolean poll(RegistryByteBuf scratch) {
+			current = getter.getAsInt();
+			return current != last;
+		}
+
+		@Override
+		public void write(RegistryByteBuf buf) {
+			int delta = current - last;
+			buf.writeVarInt((delta << 1) ^ (delta >> 31));
+			last = current;
+		}
+
+		@Override
+		public void read(RegistryByteBuf buf) {
+			int zigzag = buf.readVarInt();
+			last += (zigzag >>> 1) ^ -(zigzag & 1);
+			setter.accept(last);
+		}
+
+		@Override
+		public void reset() {
+			last = 0;
+		}
+	}
+
+	private static final class LongSlot extends SyncSlot {
+		private final LongSupplier getter;
+		private final LongConsumer setter;
+		private long current;
+		private long last;
+
+		private LongSlot(LongSupplier getter, LongConsumer setter) {
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		public boolean poll(RegistryByteBuf scratch) {
+			current = getter.getAsLong();
+			return current != last;
+		}
+
+		@Override
+		public void write(RegistryByteBuf buf) {
+			long delta = current - last;
+			buf.writeVarLong((delta << 1) ^ (delta >> 63));
+			last = current;
+		}
+
+		@Override
+		public void read(RegistryByteBuf buf) {
+			long zigzag = buf.readVarLong();
+			last += (zigzag >>> 1) ^ -(zigzag & 1);
+			setter.accept(last);
+		}
+
+		@Override
+		public void reset() {
+			last = 0;
+		}
+	}
+
+	private static final class BooleanSlot extends SyncSlot {
+		private final BooleanSupplier getter;
+		private final BooleanConsumer setter;
+		private boolean current;
+		private boolean last;
+
+		private BooleanSlot(BooleanSupplier getter, BooleanConsumer setter) {
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		@Override
+		public boolean poll(RegistryByteBuf scratch) {
+			current = getter.getAsBoolean();
+			return current != last;
+		}
+
+		@Override
+		public void write(RegistryByteBuf buf) {
+			buf.writeBoolean(current);
+			last = current;
+		}
+
+		@Override
+		public void read(RegistryByteBuf buf) {
+			last = buf.readBoolean();
+			setter.accept(last);
+		}
+
+		@Override
+		public void reset() {
+			last = false;
+		}
+	}
+
+	/**
+	 * Compares the encoded value, as synced objects are often mutable or don't implement equals
+	 */
+	private static final class ObjectSlot<T> extends SyncSlot {
+		private static final byte[] NOT_SENT = new byte[0];
+
+		private final SyncedObject<T> object;
+		private byte[] current = NOT_SENT;
+		private byte[] last = NOT_SENT;
+
+		private ObjectSlot(SyncedObject<T> object) {
+			this.object = object;
+		}
+
+		@Override
+		public boolean poll(RegistryByteBuf scratch) {
+			scratch.clear();
+			object.codec().encode(scratch, object.getter().get());
+			if (last != NOT_SENT && contentEquals(scratch, last)) {
+				current = last;
+				return false;
+			}
+			current = new byte[scratch.readableBytes()];
+			scratch.getBytes(scratch.readerIndex(), current);
+			return true;
+		}
+
+		@Override
+		public void write(RegistryByteBuf buf) {
+			buf.writeBytes(current);
+			last = current;
+		}
+
+		@Override
+		public void read(RegistryByteBuf buf) {
+			object.setter().accept(object.codec().decode(buf));
+		}
+
+		@Override
+		public void reset() {
+			last = NOT_SENT;
+		}
+
+		private static boolean contentEquals(ByteBuf buf, byte[] bytes) {
+			int length = buf.readableBytes();
+			if (length != bytes.length) {
+				return false;
+			}
+			int start = buf.readerIndex();
+			for (int i = 0; i < length; i++) {
+				if (buf.getByte(start + i) != bytes[i]) {
+					return false;
+				}
+			}
+			return true;
+		}
+	}
+}
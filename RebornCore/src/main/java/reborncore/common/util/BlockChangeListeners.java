@@ -0,0 +1,178 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Notifies listeners about block changes inside a box, without having to poll the blocks every tick.
+ * Listeners are indexed by chunk section, so a block change only looks at the listeners of its own section.
+ * <p>
+ * Only changes made through {@link net.minecraft.world.World#setBlockState} on the server are reported.
+ */
+public final class BlockChangeListeners {
+
+	private static final Map<ServerWorld, Long2ObjectMap<List<Registration>>> LISTENERS = new IdentityHashMap<>();
+
+	private BlockChangeListeners() {
+	}
+
+	@FunctionalInterface
+	public interface Listener {
+		/**
+		 * Called after a block inside the registered box changed. Must not register or remove listeners.
+		 *
+		 * @param pos      {@link BlockPos} Position of the changed block
+		 * @param oldState {@link BlockState} State before the change
+		 * @param newState {@link BlockState} State after the change
+		 */
+		void onBlockChanged(BlockPos pos, BlockState oldState, BlockState newState);
+	}
+
+	/**
+	 * Registers a listener for all block changes inside the box
+	 *
+	 * @param world    {@link ServerWorld} World to listen in
+	 * @param box      {@link BlockBox} Box to listen to, inclusive
+	 * @param listener {@link Listener} Listener to call
+	 * @return {@link Registration} Handle which has to be removed once the listener is no longer needed
+	 */
+	public static Registration register(ServerWorld world, BlockBox box, Listener listener) {
+		Registration registration = new Registration(world, box, listener);
+		Long2ObjectMap<List<Registration>> sections = LISTENERS.computeIfAbsent(world, w -> new Long2ObjectOpenHashMap<>());
+		for (long section : registration.sections) {
+			sections.computeIfAbsent(section, s -> new ArrayList<>(1)).add(registration);
+		}
+		return registration;
+	}
+
+	/**
+	 * Called by the world after a block changed
+	 *
+	 * @param world    {@link ServerWorld} World the block is in
+	 * @param pos      {@link BlockPos} Position of the changed block
+	 * @param oldState {@link BlockState} State before the change
+	 * @param newState {@link BlockState} State after the change
+	 */
+	public static void onBlockChanged(ServerWorld world, BlockPos pos, BlockState oldState, BlockState newState) {
+		if (LISTENERS.isEmpty()) {
+			return;
+		}
+		Long2ObjectMap<List<Registration>> sections = LISTENERS.get(world);
+		if (sections == null) {
+			return;
+		}
+		List<Registration> registrations = sections.get(ChunkSectionPos.toLong(pos));
+		if (registrations == null) {
+			return;
+		}
+		for (int i = 0; i < registrations.size(); i++) {
+			Registration registration = registrations.get(i);
+			if (registration.box.contains(pos)) {
+				registration.listener.onBlockChanged(pos, oldState, newState);
+			}
+		}
+	}
+
+	public static void onWorldUnload(ServerWorld world) {
+		LISTENERS.remove(world);
+	}
+
+	public static void clear() {
+		LISTENERS.clear();
+	}
+
+	public static final class Registration {
+		private final ServerWorld world;
+		private final BlockBox box;
+		private final Listener listener;
+		private final long[] sections;
+		private boolean removed = false;
+
+		private Registration(ServerWorld world, BlockBox box, Listener listener) {
+			this.world = world;
+			this.box = box;
+			this.listener = listener;
+
+			int minX = ChunkSectionPos.getSectionCoord(box.getMinX());
+			int minY = ChunkSectionPos.getSectionCoord(box.getMinY());
+			int minZ = ChunkSectionPos.getSectionCoord(box.getMinZ());
+			int maxX = ChunkSectionPos.getSectionCoord(box.getMaxX());
+			int maxY = ChunkSectionPos.getSectionCoord(box.getMaxY());
+			int maxZ = ChunkSectionPos.getSectionCoord(box.getMaxZ());
+			this.sections = new long[(maxX - minX + 1) * (maxY - minY + 1) * (maxZ - minZ + 1)];
+			int i = 0;
+			for (int x = minX; x <= maxX; x++) {
+				for (int y = minY; y <= maxY; y++) {
+					for (int z = minZ; z <= maxZ; z++) {
+						sections[i++] = ChunkSectionPos.asLong(x, y, z);
+					}
+				}
+			}
+		}
+
+		public BlockBox getBox() {
+			return box;
+		}
+
+		public boolean isRemoved() {
+			return removed;
+		}
+
+		/**
+		 * Stops notifying the listener. Calling this more than once has no effect.
+		 */
+		public void remove() {
+			if (removed) {
+				return;
+			}
+			removed = true;
+			Long2ObjectMap<List<Registration>> worldSections = LISTENERS.get(world);
+			if (worldSections == null) {
+				return;
+			}
+			for (long section : sections) {
+				List<Registration> registrations = worldSections.get(section);
+				if (registrations != null && registrations.remove(this) && registrations.isEmpty()) {
+					worldSections.remove(section);
+				}
+			}
+			if (worldSections.isEmpty()) {
+				LISTENERS.remove(world);
+			}
+		}
+	}
+}
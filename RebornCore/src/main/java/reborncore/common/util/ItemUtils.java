@@ -67,9 +67,13 @@ public class ItemUtils {
 
 	public static boolean canExtractAnyFromShulker(ItemStack shulkerStack, ItemStack targetStack) {
 		//bundle method
-		List<ItemStack> stacks = getBlockEntityStacks(shulkerStack);
+		ContainerComponent container = shulkerStack.get(DataComponentTypes.CONTAINER);
+		if (container == null) {
+			return false;
+		}
 
-		for (ItemStack stack : stacks) {
+		// Walk the component directly, most stacks checked here aren't containers or don't hold the target
+		for (ItemStack stack : container.iterateNonEmpty()) {
 			if (ItemStack.areItemsAndComponentsEqual(targetStack, stack)) {
 				return true;
 			}
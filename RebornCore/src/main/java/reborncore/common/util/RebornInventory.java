@@ -137,6 +137,9 @@ public class RebornInventory<T extends MachineBaseBlockEntity> extends Inventory
 	public void setHashChanged() {
 		this.hasChanged = true;
 		this.markDirty();
+		if (blockEntity != null) {
+			blockEntity.wake();
+		}
 	}
 
 	public void setHashChanged(boolean changed) {
@@ -0,0 +1,242 @@
+/*
+ * This file is part of RebornCore, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2021 TeamReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package reborncore.common.util;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.block.entity.BlockEntityType;
+import net.minecraft.registry.Registries;
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Measures how much server time machines, cables and multiblocks take. Does nothing until {@link #start()} is called,
+ * when stopped the cost of a measured section is a single boolean check.
+ * <p>
+ * Only used on the server thread.
+ */
+public final class TickProfiler {
+
+	public static final long NOT_PROFILING = Long.MIN_VALUE;
+	private static final int REPORT_CHUNKS = 20;
+
+	private static boolean enabled = false;
+	private static long startTime;
+	private static long stopTime;
+	private static final Map<Section, SectionData> SECTIONS = new EnumMap<>(Section.class);
+
+	private TickProfiler() {
+	}
+
+	public enum Section {
+		MACHINE("Machine ticks"),
+		CABLE("Cable network ticks"),
+		MULTIBLOCK("Multiblock controller ticks"),
+		RECIPE("Recipe crafting");
+
+		private final String title;
+
+		Section(String title) {
+			this.title = title;
+		}
+	}
+
+	/**
+	 * Starts collecting, keeping the data collected so far
+	 */
+	public static void start() {
+		if (!enabled) {
+			enabled = true;
+			startTime = System.nanoTime() - (stopTime - startTime);
+		}
+	}
+
+	public static void stop() {
+		if (enabled) {
+			enabled = false;
+			stopTime = System.nanoTime();
+		}
+	}
+
+	public static void reset() {
+		SECTIONS.clear();
+		startTime = stopTime = System.nanoTime();
+	}
+
+	public static boolean isEnabled() {
+		return enabled;
+	}
+
+	/**
+	 * Call before the measured section
+	 *
+	 * @param world {@link World} The world the section runs in, nothing is measured on the client
+	 * @return {@code long} The value to pass to {@link #end}
+	 */
+	public static long begin(@Nullable World world) {
+		if (!enabled || world == null || world.isClient) {
+			return NOT_PROFILING;
+		}
+		return System.nanoTime();
+	}
+
+	/**
+	 * Call after the measured section
+	 *
+	 * @param begin   {@code long} The value returned by {@link #begin}
+	 * @param section {@link Section} What was measured
+	 * @param key     {@link Object} What to group by, a {@link BlockEntityType} or a {@link Class}
+	 * @param world   {@link World} The world the section ran in
+	 * @param pos     {@link BlockPos} The position to group chunks by, or null
+	 */
+	public static void end(long begin, Section section, Object key, World world, @Nullable BlockPos pos) {
+		if (begin == NOT_PROFILING || !enabled) {
+			return;
+		}
+		long nanos = System.nanoTime() - begin;
+		SectionData data = SECTIONS.computeIfAbsent(section, s -> new SectionData());
+		data.total.add(nanos);
+		data.byKey.computeIfAbsent(key, k -> new Counter()).add(nanos);
+		if (pos != null) {
+			data.byChunk.computeIfAbsent(world.getRegistryKey(), k -> new Long2ObjectOpenHashMap<>())
+				.computeIfAbsent(ChunkPos.toLong(ChunkSectionPos.getSectionCoord(pos.getX()), ChunkSectionPos.getSectionCoord(pos.getZ())), k -> new Counter())
+				.add(nanos);
+		}
+	}
+
+	/**
+	 * @param maxKeys {@code int} How many keys to list per section
+	 * @return {@link String} The collected data
+	 */
+	public static String getReport(int maxKeys) {
+		StringWriter writer = new StringWriter();
+		writeReport(new PrintWriter(writer), maxKeys, 0);
+		return writer.toString();
+	}
+
+	/**
+	 * Writes everything that was collected, including the slowest chunks, to the file
+	 *
+	 * @param path {@link Path} The file to write to
+	 * @throws IOException If writing fails
+	 */
+	public static void dump(Path path) throws IOException {
+		if (path.getParent() != null) {
+			Files.createDirectories(path.getParent());
+		}
+		try (Writer writer = Files.newBufferedWriter(path)) {
+			writeReport(new PrintWriter(writer), Integer.MAX_VALUE, REPORT_CHUNKS);
+		}
+	}
+
+	private static void writeReport(PrintWriter out, int maxKeys, int maxChunks) {
+		long elapsed = (enabled ? System.nanoTime() : stopTime) - startTime;
+		out.printf("Profiled for %.1f s%s%n", elapsed / 1e9, enabled ? " (running)" : "");
+
+		for (Section section : Section.values()) {
+			SectionData data = SECTIONS.get(section);
+			if (data == null) {
+				continue;
+			}
+			out.printf("%n%s: %d calls, %.2f ms total, %.2f ms/s%n", section.title, data.total.calls, data.total.nanos / 1e6, elapsed > 0 ? data.total.nanos * 1e3 / elapsed : 0);
+
+			List<Map.Entry<Object, Counter>> keys = new ArrayList<>(data.byKey.entrySet());
+			keys.sort(Map.Entry.comparingByValue(Counter.BY_NANOS));
+			for (int i = 0; i < keys.size() && i < maxKeys; i++) {
+				writeCounter(out, getName(keys.get(i).getKey()), keys.get(i).getValue());
+			}
+
+			if (maxChunks > 0 && !data.byChunk.isEmpty()) {
+				out.println("  Slowest chunks:");
+				List<Map.Entry<String, Counter>> chunks = new ArrayList<>();
+				data.byChunk.forEach((dimension, counters) -> {
+					for (Long2ObjectMap.Entry<Counter> entry : counters.long2ObjectEntrySet()) {
+						ChunkPos chunkPos = new ChunkPos(entry.getLongKey());
+						chunks.add(Map.entry(dimension.getValue() + " " + chunkPos.x + ", " + chunkPos.z, entry.getValue()));
+					}
+				});
+				chunks.sort(Map.Entry.comparingByValue(Counter.BY_NANOS));
+				for (int i = 0; i < chunks.size() && i < maxChunks; i++) {
+					writeCounter(out, chunks.get(i).getKey(), chunks.get(i).getValue());
+				}
+			}
+		}
+		out.flush();
+	}
+
+	private static void writeCounter(PrintWriter out, String name, Counter counter) {
+		out.printf("  %-48s %10d calls %10.2f ms %8.1f us/call %8.1f us max%n", name, counter.calls, counter.nanos / 1e6, counter.nanos / 1e3 / counter.calls, counter.max / 1e3);
+	}
+
+	private static String getName(Object key) {
+		if (key instanceof BlockEntityType<?> type) {
+			Identifier id = Registries.BLOCK_ENTITY_TYPE.getId(type);
+			return id == null ? type.toString() : id.toString();
+		}
+		if (key instanceof Class<?> clazz) {
+			return clazz.getSimpleName();
+		}
+		return String.valueOf(key);
+	}
+
+	private static final class SectionData {
+		private final Counter total = new Counter();
+		private final Map<Object, Counter> byKey = new IdentityHashMap<>();
+		private final Map<RegistryKey<World>, Long2ObjectMap<Counter>> byChunk = new HashMap<>();
+	}
+
+	private static final class Counter {
+		private static final Comparator<Counter> BY_NANOS = Comparator.comparingLong((Counter counter) -> counter.nanos).reversed();
+
+		private long calls;
+		private long nanos;
+		private long max;
+
+		private void add(long time) {
+			calls++;
+			nanos += time;
+			max = Math.max(max, time);
+		}
+	}
+}
@@ -24,86 +24,80 @@
 
 package reborncore.common.util;
 
-import com.google.common.collect.ImmutableList;
-import it.unimi.dsi.fastutil.ints.Int2IntMap;
-import it.unimi.dsi.fastutil.ints.Int2IntOpenHashMap;
-import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
 import net.minecraft.util.math.BlockPos;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Positions of the fusion coil ring for each size. A ring is only generated when its size is first requested,
+ * and kept as packed {@link BlockPos#asLong} offsets from the controller.
+ */
 public class Torus {
-	private static final ExecutorService GEN_EXECUTOR = Executors.newSingleThreadExecutor();
-	private static Int2IntMap torusSizeCache;
-	private static Int2ObjectOpenHashMap<ImmutableList<BlockPos>> torusListCache;
+	// Filled by computeIfAbsent, so readers on any thread only see finished arrays
+	private static final Map<Integer, long[]> OFFSET_CACHE = new ConcurrentHashMap<>();
+
 	public static List<BlockPos> generate(BlockPos origin, int radius) {
-		List<BlockPos> posLists = new ArrayList<>();
-		for (int x = -radius; x < radius; x++) {
-			for (int y = -radius; y < radius; y++) {
-				for (int z = -radius; z < radius; z++) {
-					if (Math.pow(radius / 2 - Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2)), 2) + Math.pow(z, 2) < Math.pow(radius * 0.05, 2)) {
-						posLists.add(origin.add(x, z, y));
-					}
-				}
-			}
+		long[] offsets = getOffsets(radius);
+		List<BlockPos> posLists = new ArrayList<>(offsets.length);
+		for (long offset : offsets) {
+			posLists.add(origin.add(BlockPos.unpackLongX(offset), BlockPos.unpackLongY(offset), BlockPos.unpackLongZ(offset)));
 		}
-
 		return posLists;
 	}
-	public static List<BlockPos> getOriginPositions(int radius){
-		return torusListCache.get(radius);
+
+	public static List<BlockPos> getOriginPositions(int radius) {
+		return generate(BlockPos.ORIGIN, radius);
 	}
-	public static void genSizeMap(int maxRadius) {
-		if (torusSizeCache != null) {
-			// Let's not do this again
-			return;
-		}
-		// 10 is added as the control computer has a base of around 6 less
-		final int sizeToCompute = maxRadius + 10;
 
-		torusSizeCache = new Int2IntOpenHashMap(sizeToCompute);
-		torusListCache = new Int2ObjectOpenHashMap<>(sizeToCompute);
-		for (int i = 0; i < sizeToCompute; i++) {
-			final int radius = i;
-			GEN_EXECUTOR.submit(() -> {
-				int size = 0;
-				ArrayList<BlockPos> list = new ArrayList<>();
-				for (int x = -radius; x < radius; x++) {
-					for (int y = -radius; y < radius; y++) {
-						for (int z = -radius; z < radius; z++) {
-							if (Math.pow(radius / 2 - Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2)), 2) + Math.pow(z, 2) < Math.pow(radius * 0.05, 2)) {
-								size++;
-								list.add(new BlockPos(x,z,y));
-							}
-						}
-					}
-				}
-				torusSizeCache.put(radius, size);
-				torusListCache.put(radius, ImmutableList.copyOf(list));
-			});
-		}
+	/**
+	 * @param radius {@code int} Size of the ring
+	 * @return {@code long[]} Packed offsets of the coils, shared so must not be modified
+	 */
+	public static long[] getOffsets(int radius) {
+		return OFFSET_CACHE.computeIfAbsent(radius, Torus::computeOffsets);
+	}
 
-		// Finish running the tasks, and then shutdown the ExecutorService. This call does not stall the main thread
-		GEN_EXECUTOR.shutdown();
+	/**
+	 * @param radius {@code int} Size of the ring
+	 * @return {@code int} Number of coils in the ring
+	 */
+	public static int getSize(int radius) {
+		return getOffsets(radius).length;
 	}
 
 	/**
-	 * @return {@link Int2IntMap}
-	 * @throws RuntimeException If failed to initialize the map
+	 * Sweeps the horizontal plane once, for every column only the heights inside the tube are visited.
+	 * The test and the order of the positions are the same as testing every block of the cube, which the
+	 * TechReborn game tests check. Package-private for the benchmarks.
 	 */
-	public static Int2IntMap getTorusSizeCache() {
-		if (!GEN_EXECUTOR.isShutdown()) {
-			try {
-				GEN_EXECUTOR.awaitTermination(1, TimeUnit.SECONDS);
-			} catch (InterruptedException e) {
-				throw new RuntimeException("Reborn core failed to initialize the torus cache", e);
+	static long[] computeOffsets(int radius) {
+		double ringRadius = radius / 2;
+		double tubeRadiusSq = Math.pow(radius * 0.05, 2);
+		long[] offsets = new long[16];
+		int size = 0;
+		for (int x = -radius; x < radius; x++) {
+			for (int y = -radius; y < radius; y++) {
+				double ringDistanceSq = Math.pow(ringRadius - Math.sqrt(x * x + y * y), 2);
+				if (ringDistanceSq >= tubeRadiusSq) {
+					continue;
+				}
+				// The tube is symmetric around z = 0
+				int height = 0;
+				while (height + 1 < radius && ringDistanceSq + (double) (height + 1) * (height + 1) < tubeRadiusSq) {
+					height++;
+				}
+				for (int z = -height; z <= height; z++) {
+					if (size == offsets.length) {
+						offsets = Arrays.copyOf(offsets, size * 2);
+					}
+					offsets[size++] = BlockPos.asLong(x, z, y);
+				}
 			}
 		}
-
-		return torusSizeCache;
+		return Arrays.copyOf(offsets, size);
 	}
 }
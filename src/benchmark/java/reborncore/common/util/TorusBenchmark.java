@@ -0,0 +1,112 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package reborncore.common.util;
+
+import com.google.common.collect.ImmutableList;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.util.math.BlockPos;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the startup cost of the coil rings. The previous generation built the lists of every size up to the
+ * max coil size plus 10 at startup by testing every block of the cube, now only the sizes in use are swept.
+ * Runs are cold single shots, like at startup.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhArgs="Torus -prof gc"}. The allocated bytes per operation reported by the
+ * gc profiler bound the heap the rings keep, as the results are cached for the lifetime of the game.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 0)
+@Measurement(iterations = 10)
+@Fork(5)
+public class TorusBenchmark {
+	// Default of the max coil size config
+	@Param({"50"})
+	int maxRadius;
+
+	@Benchmark
+	public Int2ObjectOpenHashMap<ImmutableList<BlockPos>> previousStartup() {
+		int sizeToCompute = maxRadius + 10;
+		Int2ObjectOpenHashMap<ImmutableList<BlockPos>> torusListCache = new Int2ObjectOpenHashMap<>(sizeToCompute);
+		for (int radius = 0; radius < sizeToCompute; radius++) {
+			ArrayList<BlockPos> list = new ArrayList<>();
+			for (int x = -radius; x < radius; x++) {
+				for (int y = -radius; y < radius; y++) {
+					for (int z = -radius; z < radius; z++) {
+						if (Math.pow(radius / 2 - Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2)), 2) + Math.pow(z, 2) < Math.pow(radius * 0.05, 2)) {
+							list.add(new BlockPos(x, z, y));
+						}
+					}
+				}
+			}
+			torusListCache.put(radius, ImmutableList.copyOf(list));
+		}
+		return torusListCache;
+	}
+
+	/**
+	 * Every size the previous generation built, the worst case when reactors of all sizes are loaded
+	 */
+	@Benchmark
+	public Int2ObjectOpenHashMap<long[]> currentAllSizes() {
+		int sizeToCompute = maxRadius + 10;
+		Int2ObjectOpenHashMap<long[]> offsets = new Int2ObjectOpenHashMap<>(sizeToCompute);
+		for (int radius = 0; radius < sizeToCompute; radius++) {
+			offsets.put(radius, Torus.computeOffsets(radius));
+		}
+		return offsets;
+	}
+
+	/**
+	 * The ring of the default size, the only one built until a reactor is resized
+	 */
+	@Benchmark
+	public long[] currentDefaultSize() {
+		return Torus.computeOffsets(6);
+	}
+
+	/**
+	 * The largest ring, built when a reactor is resized to the max coil size
+	 */
+	@Benchmark
+	public long[] currentMaxSize() {
+		return Torus.computeOffsets(maxRadius);
+	}
+}
@@ -0,0 +1,162 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+
+package techreborn.blockentity.cable;
+
+import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import team.reborn.energy.api.EnergyStorage;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Compares the energy dispatch of {@link CableTickManager} with the dispatch it replaced, which simulated,
+ * shuffled and sorted every target on every call. Each invocation pushes energy into the targets of one network.
+ * <p>
+ * Run with {@code ./gradlew jmh -PjmhArgs="CableDispatch"}, add {@code -prof gc} to compare the allocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CableDispatchBenchmark {
+	private static final long TRANSFER_RATE = 8192;
+	private static final Consumer<EnergyStorage> NO_OP = storage -> {
+	};
+
+	@Param({"10", "100", "1000", "10000"})
+	int targetCount;
+
+	private List<EnergyStorage> targets;
+	private long[] limits;
+	private long[] sortKeys;
+	private long tick = 0;
+	private long maxAmount;
+
+	@Setup
+	public void setup() {
+		// Fixed seed, a mix of full machines, slow consumers and targets that take the whole transfer rate
+		Random random = new Random(42);
+		targets = new ArrayList<>(targetCount);
+		for (int i = 0; i < targetCount; i++) {
+			long rate = switch (random.nextInt(3)) {
+				case 0 -> 0;
+				case 1 -> 1 + random.nextInt(512);
+				default -> TRANSFER_RATE;
+			};
+			targets.add(new ConsumerStorage(rate));
+		}
+		limits = new long[targetCount];
+		sortKeys = new long[targetCount];
+		Arrays.fill(limits, CableTickManager.UNKNOWN_LIMIT);
+		maxAmount = targetCount * TRANSFER_RATE / 2;
+	}
+
+	@Benchmark
+	public long currentDispatch() {
+		return CableTickManager.dispatchTransfer(targets, Function.identity(), NO_OP,
+			limits, sortKeys, tick++, TRANSFER_RATE, EnergyStorage::insert, maxAmount);
+	}
+
+	@Benchmark
+	public long previousDispatch() {
+		List<SortableStorage> sortedTargets = new ArrayList<>();
+		for (EnergyStorage storage : targets) {
+			sortedTargets.add(new SortableStorage(storage));
+		}
+		Collections.shuffle(sortedTargets);
+		sortedTargets.sort(Comparator.comparingLong(sortableStorage -> sortableStorage.simulationResult));
+		try (Transaction transaction = Transaction.openOuter()) {
+			long transferredAmount = 0;
+			for (int i = 0; i < sortedTargets.size(); ++i) {
+				SortableStorage target = sortedTargets.get(i);
+				int remainingTargets = sortedTargets.size() - i;
+				long remainingAmount = maxAmount - transferredAmount;
+				long targetMaxAmount = Math.min(remainingAmount / remainingTargets, TRANSFER_RATE);
+				transferredAmount += target.storage.insert(targetMaxAmount, transaction);
+			}
+			transaction.commit();
+			return transferredAmount;
+		}
+	}
+
+	private static class SortableStorage {
+		private final EnergyStorage storage;
+		private final long simulationResult;
+
+		SortableStorage(EnergyStorage storage) {
+			this.storage = storage;
+			try (Transaction tx = Transaction.openOuter()) {
+				this.simulationResult = storage.insert(Long.MAX_VALUE, tx);
+			}
+		}
+	}
+
+	/**
+	 * A machine that uses up to a fixed amount of energy every tick, so it accepts the same amount on every call
+	 */
+	private record ConsumerStorage(long rate) implements EnergyStorage {
+		@Override
+		public long insert(long maxAmount, TransactionContext transaction) {
+			return Math.min(maxAmount, rate);
+		}
+
+		@Override
+		public long extract(long maxAmount, TransactionContext transaction) {
+			return 0;
+		}
+
+		@Override
+		public long getAmount() {
+			return 0;
+		}
+
+		@Override
+		public long getCapacity() {
+			return rate;
+		}
+	}
+}
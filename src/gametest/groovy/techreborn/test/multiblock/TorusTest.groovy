@@ -0,0 +1,68 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.test.multiblock
+
+import net.minecraft.test.GameTest
+import net.minecraft.util.math.BlockPos
+import reborncore.common.util.Torus
+import techreborn.config.TechRebornConfig
+import techreborn.test.TRGameTest
+import techreborn.test.TRTestContext
+
+class TorusTest extends TRGameTest {
+	@GameTest(templateName = "fabric-gametest-api-v1:empty")
+	def testTorusMatchesCubeTest(TRTestContext context) {
+		/**
+		 * Test that the swept coil rings hold the same positions in the same order as testing every block of
+		 * the cube around the controller, for every size up to the max coil size
+		 */
+		for (int radius = 0; radius <= TechRebornConfig.fusionControlComputerMaxCoilSize; radius++) {
+			def expected = cubeTest(radius)
+			def actual = Torus.getOffsets(radius)
+			assert actual == expected : "Coil ring of size ${radius} differs from the cube test"
+			assert Torus.getSize(radius) == expected.length
+		}
+		context.complete()
+	}
+
+	/**
+	 * The ring test Torus used before the plane sweep. Groovy divides into decimals, so the integer division
+	 * and the double literal keep the arithmetic of the Java original.
+	 */
+	private static long[] cubeTest(int radius) {
+		List<Long> offsets = []
+		double ringRadius = radius.intdiv(2)
+		for (int x = -radius; x < radius; x++) {
+			for (int y = -radius; y < radius; y++) {
+				for (int z = -radius; z < radius; z++) {
+					if (Math.pow(ringRadius - Math.sqrt(Math.pow(x, 2) + Math.pow(y, 2)), 2) + Math.pow(z, 2) < Math.pow(radius * 0.05d, 2)) {
+						offsets.add(BlockPos.asLong(x, z, y))
+					}
+				}
+			}
+		}
+		return offsets as long[]
+	}
+}
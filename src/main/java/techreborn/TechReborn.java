@@ -33,7 +33,6 @@ import org.slf4j.LoggerFactory;
 import reborncore.common.blockentity.RedstoneConfiguration;
 import reborncore.common.config.Configuration;
 import reborncore.common.recipes.RecipeCrafter;
-import reborncore.common.util.Torus;
 import techreborn.blockentity.GuiType;
 import techreborn.component.TRDataComponentTypes;
 import techreborn.config.TechRebornConfig;
@@ -45,6 +44,7 @@ import techreborn.init.ModLoot;
 import techreborn.init.ModRecipes;
 import techreborn.init.ModSounds;
 import techreborn.init.TRBlockEntities;
+import techreborn.init.TRCommands;
 import techreborn.init.TRCauldronBehavior;
 import techreborn.init.TRContent;
 import techreborn.init.TRDispenserBehavior;
@@ -91,9 +91,6 @@ public class TechReborn implements ModInitializer {
 		ApplyArmorToDamageHandler.init();
 		FuelRecipes.init();
 
-
-		Torus.genSizeMap(TechRebornConfig.fusionControlComputerMaxCoilSize);
-
 		RedstoneConfiguration.fluidStack = DynamicCellItem.getCellWithFluid(Fluids.LAVA);
 		RedstoneConfiguration.powerStack = new ItemStack(TRContent.RED_CELL_BATTERY);
 
@@ -105,6 +102,7 @@ public class TechReborn implements ModInitializer {
 		ComposterBlock.ITEM_TO_LEVEL_INCREASE_CHANCE.put(TRContent.SmallDusts.SAW.asItem(), 0.1F);
 
 		TechRebornTemplates.init();
+		TRCommands.init();
 
 		LOGGER.info("TechReborn setup done!");
 	}
@@ -34,6 +34,7 @@ import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.nbt.NbtHelper;
+import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.network.packet.s2c.play.BlockEntityUpdateS2CPacket;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.server.world.ServerWorld;
@@ -45,8 +46,9 @@ import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 import reborncore.api.IListInfoProvider;
 import reborncore.api.IToolDrop;
-import reborncore.common.network.NetworkManager;
-import reborncore.common.network.clientbound.CustomDescriptionPayload;
+import reborncore.api.blockentity.UnloadHandler;
+import reborncore.common.blockentity.SyncedFields;
+import reborncore.common.network.FieldSyncManager;
 import reborncore.common.powerSystem.PowerSystem;
 import reborncore.common.util.StringUtils;
 import reborncore.common.util.WorldUtils;
@@ -58,9 +60,10 @@ import techreborn.init.TRContent;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
 
 public class CableBlockEntity extends BlockEntity
-	implements BlockEntityTicker<CableBlockEntity>, IListInfoProvider, IToolDrop, RenderAttachmentBlockEntity {
+	implements BlockEntityTicker<CableBlockEntity>, IListInfoProvider, IToolDrop, RenderAttachmentBlockEntity, UnloadHandler, SyncedFields.Provider {
 	// Can't use SimpleEnergyStorage because the cable type is not available when the BE is constructed.
 	final SimpleSidedEnergyContainer energyContainer = new SimpleSidedEnergyContainer() {
 		@Override
@@ -83,9 +86,17 @@ public class CableBlockEntity extends BlockEntity
 	private TRContent.Cables cableType = null;
 	@Nullable
 	private BlockState cover = null;
-	long lastTick = 0;
 	// null means that it needs to be re-queried
-	List<CableTarget> targets = null;
+	List<OfferedEnergyStorage> targets = null;
+	/**
+	 * The network this cable belongs to, null if it needs to be joined or rebuilt on the next tick.
+	 */
+	@Nullable
+	CableNetwork network = null;
+	/**
+	 * The last tick of the network this cable was detached from, so the network it joins next doesn't tick twice.
+	 */
+	long lastNetworkTick = -1;
 	/**
 	 * Adjacent caches, used to quickly query adjacent cable block entities.
 	 */
@@ -102,6 +113,8 @@ public class CableBlockEntity extends BlockEntity
 	 */
 	boolean ioBlocked = false;
 
+	private SyncedFields syncedFields;
+
 	public CableBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.CABLE, pos, state);
 	}
@@ -145,10 +158,22 @@ public class CableBlockEntity extends BlockEntity
 	public void setCover(BlockState cover) {
 		this.cover = cover;
 		if (world != null && !world.isClient) {
-			NetworkManager.sendToTracking(new CustomDescriptionPayload(getPos(), this.createNbt(world.getRegistryManager())), this);
+			FieldSyncManager.queue(this);
 		}
 	}
 
+	@Override
+	public SyncedFields getSyncedFields() {
+		if (syncedFields == null) {
+			syncedFields = new SyncedFields(context -> context.sync(
+				PacketCodecs.optional(PacketCodecs.entryOf(Block.STATE_IDS)),
+				() -> Optional.ofNullable(cover),
+				state -> cover = state.orElse(null)
+			));
+		}
+		return syncedFields;
+	}
+
 	public long getEnergy() {
 		return energyContainer.amount;
 	}
@@ -192,7 +217,7 @@ public class CableBlockEntity extends BlockEntity
 					}
 				} else if (adjCache.find(direction.getOpposite()) != null) {
 					foundSomething = true;
-					targets.add(new CableTarget(direction, adjCache));
+					targets.add(new OfferedEnergyStorage(this, direction, adjCache));
 				}
 
 				newBlockState = newBlockState.with(CableBlock.PROPERTY_MAP.get(direction), foundSomething);
@@ -202,20 +227,18 @@ public class CableBlockEntity extends BlockEntity
 		}
 
 		// Fill the list.
-		for (CableTarget target : targets) {
-			EnergyStorage storage = target.find();
-
-			if (storage == null) {
+		for (OfferedEnergyStorage target : targets) {
+			if (!target.refresh()) {
 				// Schedule a rebuild next tick.
 				// This is just a reference change, the iterator remains valid.
 				targets = null;
+				if (network != null) {
+					network.targetsDirty = true;
+				}
 			} else {
-				targetStorages.add(new OfferedEnergyStorage(this, target.directionTo, storage));
+				targetStorages.add(target);
 			}
 		}
-
-		// Reset blocked sides.
-		blockedSides = 0;
 	}
 
 	// BlockEntity
@@ -255,6 +278,25 @@ public class CableBlockEntity extends BlockEntity
 
 	public void neighborUpdate() {
 		targets = null;
+		if (network != null) {
+			network.targetsDirty = true;
+		}
+	}
+
+	@Override
+	public void markRemoved() {
+		super.markRemoved();
+		if (network != null) {
+			network.invalidate();
+		}
+	}
+
+	// UnloadHandler
+	@Override
+	public void onUnload() {
+		if (network != null) {
+			network.invalidate();
+		}
 	}
 
 	// BlockEntityTicker
@@ -304,12 +346,4 @@ public class CableBlockEntity extends BlockEntity
 	public @Nullable BlockState getRenderAttachmentData() {
 		return cover;
 	}
-
-	private record CableTarget(Direction directionTo, BlockApiCache<EnergyStorage, Direction> cache) {
-
-		@Nullable
-		EnergyStorage find() {
-			return cache.find(directionTo.getOpposite());
-		}
-	}
 }
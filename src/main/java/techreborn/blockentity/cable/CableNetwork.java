@@ -0,0 +1,207 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.cable;
+
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.Direction;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A connected group of cables with the same transfer rate.
+ * <p>
+ * Networks are kept between ticks and are only changed when a cable is added to or removed from the world,
+ * or when the targets of one of its cables change. Adding a cable merges the adjacent networks,
+ * removing one invalidates its network, which is then rebuilt from the remaining cables.
+ */
+final class CableNetwork {
+	private static final Deque<CableBlockEntity> bfsQueue = new ArrayDeque<>();
+
+	final List<CableBlockEntity> cables = new ArrayList<>();
+	final List<OfferedEnergyStorage> targets = new ArrayList<>();
+	/**
+	 * Set when the targets of a cable changed, the target list is rebuilt before the next transfer.
+	 */
+	boolean targetsDirty = true;
+	long lastTick = -1;
+	/**
+	 * Per target amounts of the last extraction and insertion, indexed like {@link #targets}.
+	 * See {@link CableTickManager} for how these are used to order the targets.
+	 */
+	long[] extractLimits = new long[0];
+	long[] insertLimits = new long[0];
+	/**
+	 * Scratch space for sorting the targets, reused every tick.
+	 */
+	long[] sortKeys = new long[0];
+
+	private CableNetwork() {
+	}
+
+	/**
+	 * Get the network of a cable, joining or building one if the cable does not belong to a network yet.
+	 */
+	static CableNetwork getOrCreate(CableBlockEntity cable) {
+		if (cable.network != null) {
+			return cable.network;
+		}
+
+		CableNetwork joined = null;
+		for (Direction direction : Direction.values()) {
+			if (!(cable.getAdjacentBlockEntity(direction) instanceof CableBlockEntity adjCable) || !canConnect(cable, adjCable)) {
+				continue;
+			}
+			if (adjCable.network == null) {
+				// Unknown neighbour, for example after a chunk load. Flood the whole group instead.
+				return build(cable);
+			}
+			if (joined == null) {
+				joined = adjCable.network;
+			} else if (joined != adjCable.network) {
+				joined = merge(joined, adjCable.network);
+			}
+		}
+
+		if (joined == null) {
+			return build(cable);
+		}
+		joined.add(cable);
+		return joined;
+	}
+
+	static boolean canConnect(CableBlockEntity cable, CableBlockEntity adjCable) {
+		return cable.getCableType().transferRate == adjCable.getCableType().transferRate && isLoaded(adjCable);
+	}
+
+	private static boolean isLoaded(CableBlockEntity cable) {
+		// Make sure we ignore cables in non-ticking chunks.
+		return !cable.isRemoved() && cable.getWorld() instanceof ServerWorld sw && sw.isChunkLoaded(cable.getPos());
+	}
+
+	/**
+	 * Perform a BFS to gather all connected cables into a new network.
+	 */
+	private static CableNetwork build(CableBlockEntity start) {
+		CableNetwork network = new CableNetwork();
+		network.add(start);
+		bfsQueue.add(start);
+
+		try {
+			while (!bfsQueue.isEmpty()) {
+				CableBlockEntity current = bfsQueue.removeFirst();
+
+				for (Direction direction : Direction.values()) {
+					if (current.getAdjacentBlockEntity(direction) instanceof CableBlockEntity adjCable
+						&& adjCable.network != network && canConnect(current, adjCable)) {
+						if (adjCable.network != null) {
+							// Take over the whole group, the remaining cables are reached by the BFS.
+							adjCable.network.invalidate();
+						}
+						network.add(adjCable);
+						bfsQueue.add(adjCable);
+					}
+				}
+			}
+		} finally {
+			bfsQueue.clear();
+		}
+
+		return network;
+	}
+
+	/**
+	 * Move the cables of the smaller network into the larger one.
+	 */
+	private static CableNetwork merge(CableNetwork a, CableNetwork b) {
+		CableNetwork larger = a.cables.size() >= b.cables.size() ? a : b;
+		CableNetwork smaller = larger == a ? b : a;
+
+		for (CableBlockEntity cable : smaller.cables) {
+			larger.add(cable);
+		}
+		larger.lastTick = Math.max(larger.lastTick, smaller.lastTick);
+		smaller.cables.clear();
+		smaller.targets.clear();
+		return larger;
+	}
+
+	private void add(CableBlockEntity cable) {
+		lastTick = Math.max(lastTick, cable.lastNetworkTick);
+		cable.network = this;
+		cables.add(cable);
+		targetsDirty = true;
+	}
+
+	/**
+	 * Detach all cables from this network, the remaining cables will build new networks on their next tick.
+	 */
+	void invalidate() {
+		for (CableBlockEntity cable : cables) {
+			if (cable.network == this) {
+				cable.network = null;
+				cable.lastNetworkTick = lastTick;
+			}
+		}
+		cables.clear();
+		targets.clear();
+	}
+
+	/**
+	 * Update the cached target storages, rebuilding the target list if any cable changed.
+	 */
+	void updateTargets() {
+		if (!targetsDirty) {
+			boolean valid = true;
+			for (OfferedEnergyStorage target : targets) {
+				if (!target.refresh()) {
+					// Schedule a rebuild of the targets of this cable.
+					target.sourceCable.targets = null;
+					valid = false;
+				}
+			}
+			if (valid) {
+				return;
+			}
+		}
+
+		targetsDirty = false;
+		targets.clear();
+		for (CableBlockEntity cable : cables) {
+			cable.appendTargets(targets);
+		}
+
+		if (sortKeys.length < targets.size()) {
+			extractLimits = new long[targets.size()];
+			insertLimits = new long[targets.size()];
+			sortKeys = new long[targets.size()];
+		}
+		Arrays.fill(extractLimits, CableTickManager.UNKNOWN_LIMIT);
+		Arrays.fill(insertLimits, CableTickManager.UNKNOWN_LIMIT);
+	}
+}
@@ -27,16 +27,23 @@ package techreborn.blockentity.cable;
 import net.fabricmc.fabric.api.event.lifecycle.v1.ServerTickEvents;
 import net.fabricmc.fabric.api.transfer.v1.transaction.Transaction;
 import net.minecraft.server.world.ServerWorld;
-import net.minecraft.util.math.Direction;
+import reborncore.common.util.TickProfiler;
 import team.reborn.energy.api.EnergyStorage;
-import techreborn.init.TRContent;
 
-import java.util.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 class CableTickManager {
-	private static final List<CableBlockEntity> cableList = new ArrayList<>();
-	private static final List<OfferedEnergyStorage> targetStorages = new ArrayList<>();
-	private static final Deque<CableBlockEntity> bfsQueue = new ArrayDeque<>();
+	/**
+	 * Limit of a target that has not been simulated yet.
+	 */
+	static final long UNKNOWN_LIMIT = -1;
+	private static final long NO_LIMIT = Long.MAX_VALUE;
+	private static final int POSITION_BITS = 20;
+	private static final long POSITION_MASK = (1L << POSITION_BITS) - 1;
+	private static final long MAX_SORT_LIMIT = (1L << (63 - POSITION_BITS)) - 1;
 	private static long tickCounter = 0;
 
 	static {
@@ -46,112 +53,115 @@ class CableTickManager {
 	static void handleCableTick(CableBlockEntity startingCable) {
 		if (!(startingCable.getWorld() instanceof ServerWorld)) throw new IllegalStateException();
 
-		try {
-			gatherCables(startingCable);
-			if (cableList.isEmpty()) return;
-
-			// Group all energy into the network.
-			long networkCapacity = 0;
-			long networkAmount = 0;
+		long begin = TickProfiler.begin(startingCable.getWorld());
+		CableNetwork network = CableNetwork.getOrCreate(startingCable);
+		// Make sure we only tick each network once per tick.
+		if (network.lastTick == tickCounter) return;
+		network.lastTick = tickCounter;
 
-			for (CableBlockEntity cable : cableList) {
-				networkAmount += cable.energyContainer.amount;
-				networkCapacity += cable.energyContainer.getCapacity();
-
-				// Update cable connections.
-				cable.appendTargets(targetStorages);
-				// Block any cable I/O while we access the network amount directly.
-				// Some things might try to access cables, for example a p2p tunnel pointing back at a cable.
-				// If the cables and the network go out of sync, we risk duping or voiding energy.
-				cable.ioBlocked = true;
-			}
+		tickNetwork(network, startingCable);
+		TickProfiler.end(begin, TickProfiler.Section.CABLE, startingCable.getType(), startingCable.getWorld(), startingCable.getPos());
+	}
 
-			// Just in case.
-			if (networkAmount > networkCapacity) {
-				networkAmount = networkCapacity;
-			}
+	private static void tickNetwork(CableNetwork network, CableBlockEntity startingCable) {
+		List<CableBlockEntity> cableList = network.cables;
+		network.updateTargets();
+		if (cableList.isEmpty()) return;
+
+		// Group all energy into the network.
+		long networkCapacity = 0;
+		long networkAmount = 0;
+
+		for (CableBlockEntity cable : cableList) {
+			networkAmount += cable.energyContainer.amount;
+			networkCapacity += cable.energyContainer.getCapacity();
+
+			// Reset blocked sides.
+			cable.blockedSides = 0;
+			// Block any cable I/O while we access the network amount directly.
+			// Some things might try to access cables, for example a p2p tunnel pointing back at a cable.
+			// If the cables and the network go out of sync, we risk duping or voiding energy.
+			cable.ioBlocked = true;
+		}
 
-			// Pull energy from storages.
-			networkAmount += dispatchTransfer(startingCable.getCableType(), EnergyStorage::extract, networkCapacity - networkAmount);
-			// Push energy into storages.
-			networkAmount -= dispatchTransfer(startingCable.getCableType(), EnergyStorage::insert, networkAmount);
-
-			// Split energy evenly across cables.
-			int cableCount = cableList.size();
-			for (CableBlockEntity cable : cableList) {
-				cable.energyContainer.amount = networkAmount / cableCount;
-				networkAmount -= cable.energyContainer.amount;
-				cableCount--;
-				cable.markDirty();
-				cable.ioBlocked = false;
-			}
-		} finally {
-			cableList.clear();
-			targetStorages.clear();
-			bfsQueue.clear();
+		// Just in case.
+		if (networkAmount > networkCapacity) {
+			networkAmount = networkCapacity;
 		}
-	}
 
-	private static boolean shouldTickCable(CableBlockEntity current) {
-		// Make sure we only gather and tick each cable once per tick.
-		if (current.lastTick == tickCounter) return false;
-		// Make sure we ignore cables in non-ticking chunks.
-		return current.getWorld() instanceof ServerWorld sw && sw.isChunkLoaded(current.getPos());
+		// Pull energy from storages.
+		long transferRate = startingCable.getCableType().transferRate;
+		networkAmount += dispatchTransfer(network.targets, OfferedEnergyStorage::storage, OfferedEnergyStorage::afterTransfer,
+			network.extractLimits, network.sortKeys, tickCounter, transferRate, EnergyStorage::extract, networkCapacity - networkAmount);
+		// Push energy into storages.
+		networkAmount -= dispatchTransfer(network.targets, OfferedEnergyStorage::storage, OfferedEnergyStorage::afterTransfer,
+			network.insertLimits, network.sortKeys, tickCounter, transferRate, EnergyStorage::insert, networkAmount);
+
+		// Split energy evenly across cables.
+		int cableCount = cableList.size();
+		for (CableBlockEntity cable : cableList) {
+			cable.energyContainer.amount = networkAmount / cableCount;
+			networkAmount -= cable.energyContainer.amount;
+			cableCount--;
+			cable.markDirty();
+			cable.ioBlocked = false;
+		}
 	}
 
 	/**
-	 * Perform a BFS to gather all connected ticking cables.
+	 * Perform a transfer operation across the targets of a network.
+	 * <p>
+	 * Targets are served from the lowest to the highest limit, so that energy a target can't take is offered to
+	 * the next ones. The limit of a target is what it accepted the last time it was offered more than it took,
+	 * targets are only simulated when their limit is unknown. Targets with the same limit take turns being first.
+	 * <p>
+	 * Package-private and independent of the network so it can be benchmarked without a world.
+	 *
+	 * @param limits   {@code long[]} Limit of each target, at least as long as the targets
+	 * @param sortKeys {@code long[]} Scratch space, at least as long as the targets
+	 * @param tick     {@code long} Tick counter used to rotate the targets with the same limit
+	 * @return {@code long} The transferred amount
 	 */
-	private static void gatherCables(CableBlockEntity start) {
-		if (!shouldTickCable(start)) return;
-
-		bfsQueue.add(start);
-		start.lastTick = tickCounter;
-		cableList.add(start);
-
-		while (!bfsQueue.isEmpty()) {
-			CableBlockEntity current = bfsQueue.removeFirst();
-
-			for (Direction direction : Direction.values()) {
-				if (current.getAdjacentBlockEntity(direction) instanceof CableBlockEntity adjCable && current.getCableType().transferRate == adjCable.getCableType().transferRate) {
-					if (shouldTickCable(adjCable)) {
-						bfsQueue.add(adjCable);
-						adjCable.lastTick = tickCounter;
-						cableList.add(adjCable);
-					}
+	static <T> long dispatchTransfer(List<T> targets, Function<T, EnergyStorage> storageOf, Consumer<T> afterTransfer,
+									long[] limits, long[] sortKeys, long tick, long transferRate, TransferOperation operation, long maxAmount) {
+		int targetCount = targets.size();
+		if (targetCount == 0) {
+			return 0;
+		}
+
+		// Build the sort keys, the low bits hold the target position rotated by the tick counter.
+		int offset = (int) (tick % targetCount);
+		for (int i = 0; i < targetCount; i++) {
+			if (limits[i] == UNKNOWN_LIMIT) {
+				try (Transaction tx = Transaction.openOuter()) {
+					limits[i] = operation.transfer(storageOf.apply(targets.get(i)), Long.MAX_VALUE, tx);
 				}
 			}
+			int position = (i - offset + targetCount) % targetCount;
+			sortKeys[i] = Math.min(limits[i], MAX_SORT_LIMIT) << POSITION_BITS | position;
 		}
-	}
+		Arrays.sort(sortKeys, 0, targetCount);
 
-	/**
-	 * Perform a transfer operation across a list of targets.
-	 */
-	private static long dispatchTransfer(TRContent.Cables cableType, TransferOperation operation, long maxAmount) {
-		// Build target list.
-		List<SortableStorage> sortedTargets = new ArrayList<>();
-		for (var storage : targetStorages) {
-			sortedTargets.add(new SortableStorage(operation, storage));
-		}
-		// Shuffle for better average transfer.
-		Collections.shuffle(sortedTargets);
-		// Sort by lowest simulation target.
-		sortedTargets.sort(Comparator.comparingLong(sortableStorage -> sortableStorage.simulationResult));
 		// Actually perform the transfer.
 		try (Transaction transaction = Transaction.openOuter()) {
 			long transferredAmount = 0;
-			for (int i = 0; i < sortedTargets.size(); ++i) {
-				SortableStorage target = sortedTargets.get(i);
-				int remainingTargets = sortedTargets.size() - i;
+			for (int i = 0; i < targetCount; ++i) {
+				int index = (int) ((sortKeys[i] & POSITION_MASK) + offset) % targetCount;
+				T target = targets.get(index);
+				int remainingTargets = targetCount - i;
 				long remainingAmount = maxAmount - transferredAmount;
 				// Limit max amount to the cable transfer rate.
-				long targetMaxAmount = Math.min(remainingAmount / remainingTargets, cableType.transferRate);
+				long targetMaxAmount = Math.min(remainingAmount / remainingTargets, transferRate);
 
-				long localTransferred = operation.transfer(target.storage.storage(), targetMaxAmount, transaction);
+				long localTransferred = operation.transfer(storageOf.apply(target), targetMaxAmount, transaction);
+				if (targetMaxAmount > 0) {
+					// A target that took everything it was offered might take more next time.
+					limits[index] = localTransferred < targetMaxAmount ? localTransferred : NO_LIMIT;
+				}
 				if (localTransferred > 0) {
 					transferredAmount += localTransferred;
 					// Block duplicate operations.
-					target.storage.afterTransfer();
+					afterTransfer.accept(target);
 				}
 			}
 			transaction.commit();
@@ -159,19 +169,7 @@ class CableTickManager {
 		}
 	}
 
-	private interface TransferOperation {
+	interface TransferOperation {
 		long transfer(EnergyStorage storage, long maxAmount, Transaction transaction);
 	}
-
-	private static class SortableStorage {
-		private final OfferedEnergyStorage storage;
-		private final long simulationResult;
-
-		SortableStorage(TransferOperation operation, OfferedEnergyStorage storage) {
-			this.storage = storage;
-			try (Transaction tx = Transaction.openOuter()) {
-				this.simulationResult = operation.transfer(storage.storage(), Long.MAX_VALUE, tx);
-			}
-		}
-	}
 }
@@ -24,13 +24,42 @@
 
 package techreborn.blockentity.cable;
 
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
 import net.minecraft.util.math.Direction;
+import org.jetbrains.annotations.Nullable;
 import team.reborn.energy.api.EnergyStorage;
 
 /**
  * {@link EnergyStorage} adjacent to an energy cable, with some additional info.
+ * Instances are cached by the {@link CableNetwork} and only the storage itself is re-queried every tick.
  */
-record OfferedEnergyStorage(CableBlockEntity sourceCable, Direction direction, EnergyStorage storage) {
+final class OfferedEnergyStorage {
+	final CableBlockEntity sourceCable;
+	final Direction direction;
+	private final BlockApiCache<EnergyStorage, Direction> cache;
+	@Nullable
+	private EnergyStorage storage;
+
+	OfferedEnergyStorage(CableBlockEntity sourceCable, Direction direction, BlockApiCache<EnergyStorage, Direction> cache) {
+		this.sourceCable = sourceCable;
+		this.direction = direction;
+		this.cache = cache;
+	}
+
+	/**
+	 * Re-query the adjacent storage through the {@link BlockApiCache}.
+	 *
+	 * @return {@code false} if the storage is gone and the targets of the source cable need to be rebuilt
+	 */
+	boolean refresh() {
+		storage = cache.find(direction.getOpposite());
+		return storage != null;
+	}
+
+	EnergyStorage storage() {
+		return storage;
+	}
+
 	void afterTransfer() {
 		// Block insertions from this side.
 		sourceCable.blockedSides |= 1 << direction.ordinal();
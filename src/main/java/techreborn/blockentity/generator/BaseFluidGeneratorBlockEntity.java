@@ -147,13 +147,7 @@ public abstract class BaseFluidGeneratorBlockEntity extends PowerAcceptorBlockEn
 
 	@Nullable
 	public FluidGeneratorRecipe getRecipeForFluid(Fluid fluid) {
-		for (FluidGeneratorRecipe recipe : getRecipes()) {
-			if (recipe.getFluid() == fluid) {
-				return recipe;
-			}
-		}
-
-		return null;
+		return RecipeUtils.getFluidIndex(world, recipeType, FluidGeneratorRecipe::getFluid).get(fluid);
 	}
 
 	@Override
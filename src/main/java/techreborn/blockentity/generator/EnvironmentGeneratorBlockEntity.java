@@ -0,0 +1,135 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.generator;
+
+import net.minecraft.block.BlockState;
+import net.minecraft.block.entity.BlockEntityType;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.Nullable;
+import reborncore.common.blockentity.MachineBaseBlockEntity;
+import reborncore.common.blocks.BlockMachineBase;
+import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
+import reborncore.common.util.BlockChangeListeners;
+
+/**
+ * Generator depending on its surroundings. The surroundings are only sensed again when a block in
+ * {@link #getSensedArea()} changes, or every {@link #getRecheckInterval()} ticks for what block changes can't catch.
+ */
+public abstract class EnvironmentGeneratorBlockEntity extends PowerAcceptorBlockEntity {
+
+	@Nullable
+	private BlockChangeListeners.Registration environmentListener;
+	private boolean environmentChanged = true;
+
+	public EnvironmentGeneratorBlockEntity(BlockEntityType<?> type, BlockPos pos, BlockState state) {
+		super(type, pos, state);
+	}
+
+	/**
+	 * @return {@link BlockBox} Blocks the generator depends on, or null to only sense on the recheck interval
+	 */
+	@Nullable
+	protected abstract BlockBox getSensedArea();
+
+	/**
+	 * Re-reads the surroundings of the generator, only called on the server
+	 *
+	 * @param world {@link World} The world of the generator
+	 */
+	protected abstract void senseEnvironment(World world);
+
+	/**
+	 * @return {@code int} Ticks between two checks which don't follow a block change
+	 */
+	protected int getRecheckInterval() {
+		return 100;
+	}
+
+	/**
+	 * Turns the block on or off, only writing the block state when it changes
+	 *
+	 * @param active {@code boolean} Whether the generator is generating
+	 */
+	protected void setActive(boolean active) {
+		if (world == null) {
+			return;
+		}
+		BlockState state = world.getBlockState(pos);
+		if (state.contains(BlockMachineBase.ACTIVE) && state.get(BlockMachineBase.ACTIVE) != active) {
+			world.setBlockState(pos, state.with(BlockMachineBase.ACTIVE, active));
+		}
+	}
+
+	private void onEnvironmentChanged(BlockPos changedPos, BlockState oldState, BlockState newState) {
+		// The generator turning on and off isn't a change of its surroundings
+		if (!changedPos.equals(pos)) {
+			environmentChanged = true;
+		}
+	}
+
+	private void removeEnvironmentListener() {
+		if (environmentListener != null) {
+			environmentListener.remove();
+			environmentListener = null;
+		}
+		environmentChanged = true;
+	}
+
+	@Override
+	public void tick(World world, BlockPos pos, BlockState state, MachineBaseBlockEntity blockEntity) {
+		super.tick(world, pos, state, blockEntity);
+		if (!(world instanceof ServerWorld serverWorld)) {
+			return;
+		}
+
+		if (environmentListener == null) {
+			BlockBox area = getSensedArea();
+			if (area != null) {
+				environmentListener = BlockChangeListeners.register(serverWorld, area, this::onEnvironmentChanged);
+			}
+		}
+		// Spread the rechecks of large farms over the interval
+		if (environmentChanged || Math.floorMod(world.getTime() + pos.asLong(), getRecheckInterval()) == 0) {
+			environmentChanged = false;
+			senseEnvironment(world);
+		}
+	}
+
+	@Override
+	public void markRemoved() {
+		super.markRemoved();
+		removeEnvironmentListener();
+	}
+
+	// UnloadHandler
+	@Override
+	public void onUnload() {
+		super.onUnload();
+		removeEnvironmentListener();
+	}
+}
@@ -0,0 +1,349 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.generator;
+
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongIterator;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.fabricmc.fabric.api.lookup.v1.block.BlockApiCache;
+import net.minecraft.block.BlockState;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkPos;
+import net.minecraft.util.math.Direction;
+import org.jetbrains.annotations.Nullable;
+import reborncore.common.blockentity.RedstoneConfiguration;
+import reborncore.common.util.BlockChangeListeners;
+import team.reborn.energy.api.EnergyStorage;
+import team.reborn.energy.api.EnergyStorageUtil;
+import team.reborn.energy.api.base.SimpleSidedEnergyContainer;
+import techreborn.config.TechRebornConfig;
+import techreborn.init.TRContent.SolarPanels;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * A connected group of solar panels of the same type, ticked as a single generator by its first panel.
+ * <p>
+ * The energy of the panels is pooled while they belong to an array. Every panel exposes the pool, and the array
+ * pushes it to the storages next to its outer faces. Each panel still saves its share of the pool, which is
+ * handed back when the array is invalidated, so the pool survives breaking the array and reloading the world.
+ * <p>
+ * Arrays are built when a panel without an array ticks and are invalidated when one of their panels is removed
+ * or unloaded, the remaining panels then build new arrays on their next tick.
+ */
+final class SolarArray {
+	private static final Deque<SolarPanelBlockEntity> bfsQueue = new ArrayDeque<>();
+	/**
+	 * Every panel is checked for sky light at least this often, in ticks, besides the checks after a block changed
+	 * above it.
+	 */
+	private static final int SKY_SWEEP_TICKS = 100;
+
+	private final SolarPanels type;
+	private final List<SolarPanelBlockEntity> panels = new ArrayList<>();
+	/**
+	 * Indices of the panels in each column, keyed by {@link ChunkPos#toLong(int, int)} of the block coordinates.
+	 */
+	private final Long2ObjectMap<IntArrayList> columns = new Long2ObjectOpenHashMap<>();
+	/**
+	 * Columns in which a block changed. Sky light is only updated after the block change, so the columns are
+	 * checked on the following tick through {@link #recheckColumns}.
+	 */
+	private LongSet changedColumns = new LongOpenHashSet();
+	private LongSet recheckColumns = new LongOpenHashSet();
+	private final List<Edge> edges = new ArrayList<>();
+	private boolean edgesDirty = true;
+	private int visiblePanels = 0;
+	private int sweepIndex = 0;
+	private long capacity = 0;
+	private int minX, minY, minZ, maxX, maxZ;
+	@Nullable
+	private BlockChangeListeners.Registration skyListener;
+
+	private final SimpleSidedEnergyContainer energy = new SimpleSidedEnergyContainer() {
+		@Override
+		public long getCapacity() {
+			return capacity;
+		}
+
+		@Override
+		public long getMaxInsert(@Nullable Direction side) {
+			return 0;
+		}
+
+		@Override
+		public long getMaxExtract(@Nullable Direction side) {
+			return panels.isEmpty() ? 0 : panels.get(0).getMaxOutput(side);
+		}
+	};
+
+	private SolarArray(SolarPanels type) {
+		this.type = type;
+	}
+
+	/**
+	 * @return {@code boolean} Whether the panel ticks as part of an array instead of on its own
+	 */
+	static boolean canJoin(SolarPanelBlockEntity panel) {
+		return TechRebornConfig.solarArrays && panel.getPanel() != SolarPanels.CREATIVE;
+	}
+
+	/**
+	 * Get the array of a panel, building one if the panel does not belong to an array yet.
+	 */
+	static SolarArray getOrCreate(SolarPanelBlockEntity panel, ServerWorld world) {
+		if (panel.array != null) {
+			return panel.array;
+		}
+		return build(panel, world);
+	}
+
+	private static boolean canConnect(SolarPanelBlockEntity panel, SolarPanelBlockEntity adjPanel, ServerWorld world) {
+		// Make sure we ignore panels in non-ticking chunks.
+		return panel.getPanel() == adjPanel.getPanel() && !adjPanel.isRemoved() && world.isChunkLoaded(adjPanel.getPos());
+	}
+
+	/**
+	 * Perform a BFS to gather all connected panels into a new array.
+	 */
+	private static SolarArray build(SolarPanelBlockEntity start, ServerWorld world) {
+		SolarArray array = new SolarArray(start.getPanel());
+		BlockPos.Mutable adjPos = new BlockPos.Mutable();
+		array.add(start);
+		bfsQueue.add(start);
+
+		try {
+			while (!bfsQueue.isEmpty()) {
+				SolarPanelBlockEntity current = bfsQueue.removeFirst();
+
+				for (Direction direction : Direction.values()) {
+					if (world.getBlockEntity(adjPos.set(current.getPos(), direction)) instanceof SolarPanelBlockEntity adjPanel
+						&& adjPanel.array != array && canConnect(current, adjPanel, world)) {
+						if (adjPanel.array != null) {
+							// Take over the whole group, the remaining panels are reached by the BFS.
+							adjPanel.array.invalidate();
+						}
+						array.add(adjPanel);
+						bfsQueue.add(adjPanel);
+					}
+				}
+			}
+		} finally {
+			bfsQueue.clear();
+		}
+
+		for (SolarPanelBlockEntity panel : array.panels) {
+			if (checkSky(panel, world)) {
+				array.visiblePanels++;
+			}
+		}
+		BlockBox above = new BlockBox(array.minX, array.minY + 1, array.minZ, array.maxX, world.getTopYInclusive(), array.maxZ);
+		if (above.getMinY() <= above.getMaxY()) {
+			array.skyListener = BlockChangeListeners.register(world, above, array::onBlockChanged);
+		}
+		return array;
+	}
+
+	private void add(SolarPanelBlockEntity panel) {
+		BlockPos pos = panel.getPos();
+		if (panels.isEmpty()) {
+			minX = maxX = pos.getX();
+			minY = pos.getY();
+			minZ = maxZ = pos.getZ();
+		} else {
+			minX = Math.min(minX, pos.getX());
+			minY = Math.min(minY, pos.getY());
+			minZ = Math.min(minZ, pos.getZ());
+			maxX = Math.max(maxX, pos.getX());
+			maxZ = Math.max(maxZ, pos.getZ());
+		}
+
+		columns.computeIfAbsent(ChunkPos.toLong(pos.getX(), pos.getZ()), c -> new IntArrayList(1)).add(panels.size());
+		panel.array = this;
+		panels.add(panel);
+		capacity += panel.getMaxStoredPower();
+		energy.amount += panel.takeOwnEnergy();
+	}
+
+	/**
+	 * Hand the pool back to the panels and detach them, the remaining panels will build new arrays on their next tick.
+	 */
+	void invalidate() {
+		if (skyListener != null) {
+			skyListener.remove();
+			skyListener = null;
+		}
+		for (SolarPanelBlockEntity panel : panels) {
+			if (panel.array == this) {
+				long share = getShare(panel);
+				panel.array = null;
+				panel.restoreOwnEnergy(share);
+			}
+		}
+		panels.clear();
+		columns.clear();
+		edges.clear();
+		energy.amount = 0;
+		capacity = 0;
+	}
+
+	boolean isController(SolarPanelBlockEntity panel) {
+		return !panels.isEmpty() && panels.get(0) == panel;
+	}
+
+	/**
+	 * @return {@code long} The part of the pool belonging to the panel, proportional to its capacity
+	 */
+	long getShare(SolarPanelBlockEntity panel) {
+		if (capacity == 0) {
+			return 0;
+		}
+		return energy.amount * panel.getMaxStoredPower() / capacity;
+	}
+
+	EnergyStorage getSideEnergyStorage(@Nullable Direction side) {
+		return energy.getSideStorage(side);
+	}
+
+	/**
+	 * Called when a block next to one of the panels changed
+	 */
+	void markEdgesDirty() {
+		edgesDirty = true;
+	}
+
+	private void onBlockChanged(BlockPos pos, BlockState oldState, BlockState newState) {
+		long column = ChunkPos.toLong(pos.getX(), pos.getZ());
+		if (columns.containsKey(column)) {
+			changedColumns.add(column);
+		}
+	}
+
+	/**
+	 * @return {@code boolean} Whether the panel sees the sky
+	 */
+	private static boolean checkSky(SolarPanelBlockEntity panel, ServerWorld world) {
+		// Generation is only possible if sky is visible above us
+		boolean visible = world.isSkyVisible(panel.getPos().up());
+		if (visible != panel.isGenerating()) {
+			panel.setIsGenerating(visible);
+		}
+		return visible;
+	}
+
+	private void updateSky(ServerWorld world) {
+		LongSet recheck = recheckColumns;
+		recheckColumns = changedColumns;
+		changedColumns = recheck;
+
+		if (!recheck.isEmpty()) {
+			for (LongIterator iterator = recheck.iterator(); iterator.hasNext(); ) {
+				IntArrayList column = columns.get(iterator.nextLong());
+				for (int i = 0; i < column.size(); i++) {
+					recheckSky(panels.get(column.getInt(i)), world);
+				}
+			}
+			recheck.clear();
+		}
+
+		int count = Math.max(1, panels.size() / SKY_SWEEP_TICKS);
+		for (int i = 0; i < count; i++) {
+			sweepIndex = (sweepIndex + 1) % panels.size();
+			recheckSky(panels.get(sweepIndex), world);
+		}
+	}
+
+	private void recheckSky(SolarPanelBlockEntity panel, ServerWorld world) {
+		boolean wasVisible = panel.isGenerating();
+		boolean visible = checkSky(panel, world);
+		if (visible != wasVisible) {
+			visiblePanels += visible ? 1 : -1;
+		}
+	}
+
+	private void updateEdges(ServerWorld world) {
+		edgesDirty = false;
+		edges.clear();
+		BlockPos.Mutable targetPos = new BlockPos.Mutable();
+
+		for (SolarPanelBlockEntity panel : panels) {
+			for (Direction side : Direction.values()) {
+				targetPos.set(panel.getPos(), side);
+				if (world.getBlockEntity(targetPos) instanceof SolarPanelBlockEntity adjPanel && adjPanel.array == this) {
+					continue;
+				}
+				BlockApiCache<EnergyStorage, Direction> cache = BlockApiCache.create(EnergyStorage.SIDED, world, targetPos.toImmutable());
+				// Loading a neighbouring chunk does not cause a neighbor update, so only skip sides that are loaded.
+				if (cache.find(side.getOpposite()) != null || !world.isChunkLoaded(targetPos)) {
+					edges.add(new Edge(panel, cache, side));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Ticks the whole array, only called for the first panel
+	 */
+	void tick(ServerWorld world) {
+		updateSky(world);
+
+		if (visiblePanels > 0) {
+			long generated = (long) SolarGeneration.getGenerationRate(world, type) * visiblePanels;
+			energy.amount = Math.min(capacity, energy.amount + generated);
+		}
+
+		if (edgesDirty) {
+			updateEdges(world);
+		}
+		for (int i = 0; i < edges.size() && energy.amount > 0; i++) {
+			Edge edge = edges.get(i);
+			if (!edge.panel.isActive(RedstoneConfiguration.Element.POWER_IO)) {
+				continue;
+			}
+			EnergyStorage target = edge.cache.find(edge.side.getOpposite());
+			if (target != null) {
+				EnergyStorageUtil.move(energy.getSideStorage(edge.side), target, Long.MAX_VALUE, null);
+			}
+		}
+
+		// The panels save their share of the pool
+		if (world.getTime() % SKY_SWEEP_TICKS == 0) {
+			for (SolarPanelBlockEntity panel : panels) {
+				panel.markDirty();
+			}
+		}
+	}
+
+	private record Edge(SolarPanelBlockEntity panel, BlockApiCache<EnergyStorage, Direction> cache, Direction side) {
+	}
+}
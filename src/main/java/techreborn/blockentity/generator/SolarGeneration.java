@@ -0,0 +1,96 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.generator;
+
+import net.minecraft.registry.RegistryKey;
+import net.minecraft.world.World;
+import techreborn.init.TRContent.SolarPanels;
+
+/**
+ * Solar panel generation rates. On the server they only depend on the world and its time, so they are computed once
+ * per world tick for every panel type and shared by all panels.
+ */
+public final class SolarGeneration {
+
+	private static final SolarPanels[] PANELS = SolarPanels.values();
+	private static final int[] RATES = new int[PANELS.length];
+	private static RegistryKey<World> cachedWorld = null;
+	private static long cachedTime = -1;
+
+	private SolarGeneration() {
+	}
+
+	/**
+	 * @param world {@link World} The world of the panel
+	 * @param panel {@link SolarPanels} The type of the panel
+	 * @return {@code int} Energy generated per tick by a panel seeing the sky
+	 */
+	public static int getGenerationRate(World world, SolarPanels panel) {
+		if (world.isClient) {
+			// Don't share the cache with the integrated server thread
+			return getGenerationRate(panel, getMultiplier(world));
+		}
+		if (world.getRegistryKey() != cachedWorld || world.getTime() != cachedTime) {
+			float multiplier = getMultiplier(world);
+			for (SolarPanels type : PANELS) {
+				RATES[type.ordinal()] = getGenerationRate(type, multiplier);
+			}
+			cachedWorld = world.getRegistryKey();
+			cachedTime = world.getTime();
+		}
+		return RATES[panel.ordinal()];
+	}
+
+	private static int getGenerationRate(SolarPanels panel, float multiplier) {
+		if (multiplier < 0) {
+			return panel.generationRateN;
+		}
+		return (int) Math.ceil(panel.generationRateN + ((panel.generationRateD - panel.generationRateN) * multiplier));
+	}
+
+	/**
+	 * @return {@code float} Fraction of the day production, or -1 when only the night production is possible
+	 */
+	private static float getMultiplier(World world) {
+		float skyAngle = world.getSkyAngle(0);
+
+		// Check for a few conditions that would restrict the generation to minimal production...
+		if (!world.getDimension().hasSkyLight() || // No light source in dimension (e.g. nether or end)
+			(skyAngle > 0.25 && skyAngle < 0.75) || // Light source is below horizon
+			(world.isRaining() || world.isThundering())) { // Weather is present
+			return -1;
+		}
+
+		// At this point, we know a light source is present, and it's clear weather. We need to determine
+		// the level of generation based on % of time through the day, with peak production at noon and
+		// a smooth transition to night production as sun rises/sets
+		if (skyAngle > 0.75) {
+			// Morning to noon
+			return (0.25f - (1 - skyAngle)) / 0.25f;
+		}
+		// Noon to sunset
+		return (0.25f - skyAngle) / 0.25f;
+	}
+}
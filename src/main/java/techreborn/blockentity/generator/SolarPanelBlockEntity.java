@@ -32,8 +32,10 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.Formatting;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
@@ -48,6 +50,7 @@ import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
 import reborncore.common.screen.builder.ScreenHandlerBuilder;
 import reborncore.common.util.StringUtils;
+import team.reborn.energy.api.EnergyStorage;
 import techreborn.blocks.generator.BlockSolarPanel;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
@@ -56,15 +59,18 @@ import techreborn.init.TRContent.SolarPanels;
 import java.util.List;
 import java.util.Objects;
 
-public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements IToolDrop, BuiltScreenHandlerProvider {
+public class SolarPanelBlockEntity extends EnvironmentGeneratorBlockEntity implements IToolDrop, BuiltScreenHandlerProvider {
 
 	private boolean generating = false;
 
-	// Range of panel between day/night production; we calculate this only when panel is updated
-	private int dayNightRange = 0;
-
 	private SolarPanels panel;
 
+	/**
+	 * The array this panel belongs to, null if it needs to be joined or rebuilt on the next tick.
+	 */
+	@Nullable
+	SolarArray array = null;
+
 	public SolarPanelBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.SOLAR_PANEL, pos, state);
 	}
@@ -81,15 +87,13 @@ public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements I
 		if (panelBlock instanceof BlockSolarPanel solarPanelBlock) {
 			panel = solarPanelBlock.panelType;
 		}
-
-		dayNightRange = getPanel().generationRateD - getPanel().generationRateN;
 	}
 
 	// Setters/getters that provide boolean interface to underlying generating int; something about
 	// screen auto-sync REQUIRES an integer value (booleans don't get transmitted?!), so resorted to
 	// this ugly approach
 	public boolean isGenerating() { return generating; }
-	private void setIsGenerating(boolean isGenerating) {
+	void setIsGenerating(boolean isGenerating) {
 		Objects.requireNonNull(world, "World may not be null.");
 
 		if (isGenerating != isGenerating()) {
@@ -106,11 +110,24 @@ public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements I
 		return panel;
 	}
 
-	private void updateState() {
-		Objects.requireNonNull(world, "World may not be null.");
+	/**
+	 * Moves the energy of this panel into the pool of its array
+	 *
+	 * @return {@code long} The energy the panel had
+	 */
+	long takeOwnEnergy() {
+		long stored = super.getStored();
+		super.setStored(0);
+		return stored;
+	}
 
-		// Generation is only possible if sky is visible above us
-		setIsGenerating(world.isSkyVisible(pos.up()));
+	/**
+	 * Gives the panel its share of the pool back when its array is invalidated
+	 *
+	 * @param energy {@code long} The share of the panel
+	 */
+	void restoreOwnEnergy(long energy) {
+		super.setStored(energy);
 	}
 
 	public int getGenerationRate() {
@@ -120,29 +137,7 @@ public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements I
 			return 0;
 		}
 
-		float skyAngle = world.getSkyAngle(0);
-
-		// Ok, we are actively generating power, but check for a few conditions that would restrict
-		// the generation to minimal production...
-		if (!world.getDimension().hasSkyLight() || // No light source in dimension (e.g. nether or end)
-			(skyAngle > 0.25 && skyAngle < 0.75) || // Light source is below horizon
-			(world.isRaining() || world.isThundering())) { // Weather is present
-			return getPanel().generationRateN;
-		}
-
-		// At this point, we know a light source is present, and it's clear weather. We need to determine
-		// the level of generation based on % of time through the day, with peak production at noon and
-		// a smooth transition to night production as sun rises/sets
-		float multiplier;
-		if (skyAngle > 0.75) {
-			// Morning to noon
-			multiplier = (0.25f - (1 - skyAngle)) / 0.25f;
-		} else {
-			// Noon to sunset
-			multiplier = (0.25f - skyAngle) / 0.25f;
-		}
-
-		return (int)Math.ceil(getPanel().generationRateN + (dayNightRange * multiplier));
+		return SolarGeneration.getGenerationRate(world, getPanel());
 	}
 
 
@@ -150,6 +145,17 @@ public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements I
 
 	@Override
 	public void tick(World world, BlockPos pos, BlockState state, MachineBaseBlockEntity blockEntity) {
+		if (world instanceof ServerWorld serverWorld && SolarArray.canJoin(this)) {
+			// Generation and output of an array are done by its first panel, the panels only keep their own bookkeeping
+			tickBookkeeping();
+			SolarArray solarArray = SolarArray.getOrCreate(this, serverWorld);
+			if (solarArray.isController(this)) {
+				solarArray.tick(serverWorld);
+			}
+			updatePowerChange();
+			return;
+		}
+
 		super.tick(world, pos, state, blockEntity);
 		if (world == null || world.isClient) {
 			return;
@@ -169,16 +175,69 @@ public class SolarPanelBlockEntity extends PowerAcceptorBlockEntity implements I
 			return;
 		}
 
-		// State checking and updating
-		if (world.getTime() % 20 == 0) {
-			checkOverfill = true;
-			updateState();
-		}
-
 		// Power generation calculations
 		addEnergy(getGenerationRate());
 	}
 
+	// EnvironmentGeneratorBlockEntity
+	@Override
+	protected @Nullable BlockBox getSensedArea() {
+		// Sky light is updated after the block change, so blocks placed above are caught by the recheck
+		return null;
+	}
+
+	@Override
+	protected int getRecheckInterval() {
+		return 20;
+	}
+
+	@Override
+	protected void senseEnvironment(World world) {
+		if (getPanel() == TRContent.SolarPanels.CREATIVE) {
+			return;
+		}
+		checkOverfill = true;
+
+		// Generation is only possible if sky is visible above us
+		setIsGenerating(world.isSkyVisible(pos.up()));
+	}
+
+	@Override
+	public long getStored() {
+		// The energy of an array is pooled, see SolarArray
+		return array != null ? array.getShare(this) : super.getStored();
+	}
+
+	@Override
+	public EnergyStorage getSideEnergyStorage(@Nullable Direction side) {
+		return array != null ? array.getSideEnergyStorage(side) : super.getSideEnergyStorage(side);
+	}
+
+	@Override
+	public void onNeighborUpdate() {
+		super.onNeighborUpdate();
+		if (array != null) {
+			array.markEdgesDirty();
+		}
+	}
+
+	@Override
+	public void markRemoved() {
+		super.markRemoved();
+		if (array != null) {
+			array.invalidate();
+		}
+	}
+
+	// UnloadHandler
+	@Override
+	public void onUnload() {
+		super.onUnload();
+		if (array != null) {
+			array.invalidate();
+		}
+	}
+
 	@Override
 	public long getBaseMaxPower() {
 		return getPanel().internalCapacity;
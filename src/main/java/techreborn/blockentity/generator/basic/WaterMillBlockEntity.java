@@ -28,14 +28,14 @@ import net.minecraft.block.BlockState;
 import net.minecraft.block.Blocks;
 import net.minecraft.entity.player.PlayerEntity;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 import reborncore.api.IToolDrop;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
-import reborncore.common.blocks.BlockMachineBase;
-import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
+import techreborn.blockentity.generator.EnvironmentGeneratorBlockEntity;
 import techreborn.config.TechRebornConfig;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
@@ -43,7 +43,7 @@ import techreborn.init.TRContent;
 /**
  * Created by modmuss50 on 25/02/2016.
  */
-public class WaterMillBlockEntity extends PowerAcceptorBlockEntity implements IToolDrop {
+public class WaterMillBlockEntity extends EnvironmentGeneratorBlockEntity implements IToolDrop {
 
 	int waterBlocks = 0;
 
@@ -75,17 +75,23 @@ public class WaterMillBlockEntity extends PowerAcceptorBlockEntity implements IT
 		if (world.isClient) {
 			return;
 		}
-		if (world.getTime() % 20 == 0) {
-			checkForWater();
-		}
 		if (waterBlocks > 0) {
 			addEnergyProbabilistic(waterBlocks * TechRebornConfig.waterMillEnergyMultiplier);
-			world.setBlockState(pos, world.getBlockState(pos).with(BlockMachineBase.ACTIVE, true));
-		} else {
-			world.setBlockState(pos, world.getBlockState(pos).with(BlockMachineBase.ACTIVE, false));
 		}
 	}
 
+	// EnvironmentGeneratorBlockEntity
+	@Override
+	protected BlockBox getSensedArea() {
+		return new BlockBox(pos.getX() - 1, pos.getY(), pos.getZ() - 1, pos.getX() + 1, pos.getY(), pos.getZ() + 1);
+	}
+
+	@Override
+	protected void senseEnvironment(World world) {
+		checkForWater();
+		setActive(waterBlocks > 0);
+	}
+
 	@Override
 	public long getBaseMaxPower() {
 		return TechRebornConfig.waterMillMaxEnergy;
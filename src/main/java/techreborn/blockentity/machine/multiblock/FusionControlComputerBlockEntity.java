@@ -24,6 +24,9 @@
 
 package techreborn.blockentity.machine.multiblock;
 
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongSet;
+import net.minecraft.block.Block;
 import net.minecraft.block.BlockState;
 import net.minecraft.block.entity.BlockEntity;
 import net.minecraft.entity.player.PlayerEntity;
@@ -32,20 +35,25 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.recipe.RecipeEntry;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.text.Text;
 import net.minecraft.util.Identifier;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
+import reborncore.common.blockentity.MultiblockShape;
 import reborncore.common.blockentity.MultiblockWriter;
 import reborncore.common.crafting.RebornRecipe;
+import reborncore.common.crafting.RecipeIndex;
 import reborncore.common.crafting.SizedIngredient;
 import reborncore.common.crafting.RecipeUtils;
 import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
 import reborncore.common.screen.builder.ScreenHandlerBuilder;
+import reborncore.common.util.BlockChangeListeners;
 import reborncore.common.util.ItemUtils;
 import reborncore.common.util.RebornInventory;
 import reborncore.common.util.StringUtils;
@@ -57,8 +65,13 @@ import techreborn.init.ModRecipes;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
 
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
 public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity implements BuiltScreenHandlerProvider {
 
+	private static final Map<Integer, MultiblockShape> SHAPES = new ConcurrentHashMap<>();
+
 	public int craftingTickTime = 0;
 	public int neededPower = 0;
 	public int size = 6;
@@ -70,6 +83,11 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 	boolean hasStartedCrafting = false;
 	boolean checkNBTRecipe = false;
 	long lastTick = -1;
+	// Coil positions of the current size and how many of them hold no coil, kept up to date by block changes
+	@Nullable
+	private BlockChangeListeners.Registration coilListener;
+	private final LongSet coilPositions = new LongOpenHashSet();
+	private int missingCoils = 0;
 
 	public FusionControlComputerBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.FUSION_CONTROL_COMPUTER, pos, state, "FusionControlComputer", -1, -1, TRContent.Machine.FUSION_CONTROL_COMPUTER.block, -1);
@@ -101,6 +119,7 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 	public void changeSize(int sizeDelta) {
 		int newSize = size + sizeDelta;
 		this.size = Math.max(6, Math.min(TechRebornConfig.fusionControlComputerMaxCoilSize, newSize));
+		invalidateMultiblock();
 	}
 
 	/**
@@ -140,15 +159,46 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 	 * Tries to set current recipe based in inputs in reactor
 	 */
 	private void updateCurrentRecipe() {
-		for (RecipeEntry<FusionReactorRecipe> entry : RecipeUtils.getRecipeEntries(world, ModRecipes.FUSION_REACTOR)) {
+		RecipeEntry<FusionReactorRecipe> entry = findValidRecipe();
+		if (entry != null) {
+			currentRecipeEntry = entry;
+			craftingTickTime = 0;
+			neededPower = entry.value().getStartEnergy();
+			hasStartedCrafting = false;
+		}
+	}
+
+	/**
+	 * Looks up recipes using the items in the input slots and returns the first valid one
+	 *
+	 * @return {@link RecipeEntry} The first valid recipe, or {@code null} if there is none
+	 */
+	@Nullable
+	private RecipeEntry<FusionReactorRecipe> findValidRecipe() {
+		RecipeIndex<FusionReactorRecipe> index = RecipeUtils.getRecipeIndex(world, ModRecipes.FUSION_REACTOR);
+		ItemStack topStack = inventory.getStack(topStackSlot);
+		ItemStack bottomStack = inventory.getStack(bottomStackSlot);
+
+		if (!topStack.isEmpty()) {
+			for (RecipeEntry<FusionReactorRecipe> entry : index.getEntries(topStack.getItem())) {
+				if (validateRecipe(entry)) {
+					return entry;
+				}
+			}
+		}
+		if (!bottomStack.isEmpty() && !bottomStack.isOf(topStack.getItem())) {
+			for (RecipeEntry<FusionReactorRecipe> entry : index.getEntries(bottomStack.getItem())) {
+				if (validateRecipe(entry)) {
+					return entry;
+				}
+			}
+		}
+		for (RecipeEntry<FusionReactorRecipe> entry : index.getUnindexed()) {
 			if (validateRecipe(entry)) {
-				currentRecipeEntry = entry;
-				craftingTickTime = 0;
-				neededPower = entry.value().getStartEnergy();
-				hasStartedCrafting = false;
-				break;
+				return entry;
 			}
 		}
+		return null;
 	}
 
 	/**
@@ -248,10 +298,9 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 		// Move this to here from the nbt read method, as it now requires the world as of 1.14
 		if (checkNBTRecipe) {
 			checkNBTRecipe = false;
-			for (RecipeEntry<FusionReactorRecipe> entry : RecipeUtils.getRecipeEntries(world, ModRecipes.FUSION_REACTOR)) {
-				if (validateRecipe(entry)) {
-					this.currentRecipeEntry = entry;
-				}
+			RecipeEntry<FusionReactorRecipe> entry = findValidRecipe();
+			if (entry != null) {
+				this.currentRecipeEntry = entry;
 			}
 		}
 
@@ -355,6 +404,7 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 		}
 		//Done here to force the smaller size, will be useful if people lag out on a large one.
 		this.size = Math.min(size, TechRebornConfig.fusionControlComputerMaxCoilSize);
+		invalidateMultiblock();
 	}
 
 	@Override
@@ -380,6 +430,89 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 		Torus.getOriginPositions(size).forEach(pos -> writer.add(pos.getX(), pos.getY(), pos.getZ(), coil));
 	}
 
+	@Override
+	public boolean isMultiblockValid() {
+		if (!(world instanceof ServerWorld serverWorld) || isRemoved()) {
+			return super.isMultiblockValid();
+		}
+		// The ring is only read once per size, after that validity is a counter check
+		if (coilListener == null) {
+			registerCoils(serverWorld);
+		}
+		return missingCoils == 0;
+	}
+
+	private void registerCoils(ServerWorld world) {
+		Block coil = TRContent.Machine.FUSION_COIL.block;
+		coilPositions.clear();
+		missingCoils = 0;
+		int minX = pos.getX(), minY = pos.getY(), minZ = pos.getZ();
+		int maxX = minX, maxY = minY, maxZ = minZ;
+		BlockPos.Mutable coilPos = new BlockPos.Mutable();
+		// The ring is the same in every direction, so the offsets don't need rotating
+		for (long offset : Torus.getOffsets(size)) {
+			coilPos.set(pos, BlockPos.unpackLongX(offset), BlockPos.unpackLongY(offset), BlockPos.unpackLongZ(offset));
+			coilPositions.add(coilPos.asLong());
+			if (!world.getBlockState(coilPos).isOf(coil)) {
+				missingCoils++;
+			}
+			minX = Math.min(minX, coilPos.getX());
+			minY = Math.min(minY, coilPos.getY());
+			minZ = Math.min(minZ, coilPos.getZ());
+			maxX = Math.max(maxX, coilPos.getX());
+			maxY = Math.max(maxY, coilPos.getY());
+			maxZ = Math.max(maxZ, coilPos.getZ());
+		}
+		coilListener = BlockChangeListeners.register(world, new BlockBox(minX, minY, minZ, maxX, maxY, maxZ), this::onCoilChanged);
+	}
+
+	private void onCoilChanged(BlockPos changedPos, BlockState oldState, BlockState newState) {
+		if (!coilPositions.contains(changedPos.asLong())) {
+			return;
+		}
+		Block coil = TRContent.Machine.FUSION_COIL.block;
+		boolean wasCoil = oldState.isOf(coil);
+		boolean isCoil = newState.isOf(coil);
+		if (wasCoil && !isCoil) {
+			missingCoils++;
+		} else if (!wasCoil && isCoil) {
+			missingCoils--;
+		}
+	}
+
+	private void removeCoilListener() {
+		if (coilListener != null) {
+			coilListener.remove();
+			coilListener = null;
+		}
+	}
+
+	@Override
+	public void invalidateMultiblock() {
+		super.invalidateMultiblock();
+		// Registers the ring of the new size on the next check
+		removeCoilListener();
+	}
+
+	@Override
+	public void markRemoved() {
+		super.markRemoved();
+		removeCoilListener();
+	}
+
+	// UnloadHandler
+	@Override
+	public void onUnload() {
+		super.onUnload();
+		removeCoilListener();
+	}
+
+	@Override
+	protected MultiblockShape createMultiblockShape() {
+		// The ring only depends on the size, so reactors of the same size share it
+		return SHAPES.computeIfAbsent(size, ringSize -> MultiblockShape.compile(this::writeMultiblock));
+	}
+
 	@Override
 	public boolean canBeUpgraded() {
 		return false;
@@ -412,7 +545,10 @@ public class FusionControlComputerBlockEntity extends GenericMachineBlockEntity
 	}
 
 	public void setSize(int size) {
-		this.size = size;
+		if (this.size != size) {
+			this.size = size;
+			invalidateMultiblock();
+		}
 	}
 
 	public int getState() {
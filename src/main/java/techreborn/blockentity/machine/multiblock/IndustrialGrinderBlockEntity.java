@@ -34,6 +34,7 @@ import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.Nullable;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
+import reborncore.common.blockentity.MultiblockShape;
 import reborncore.common.blockentity.MultiblockWriter;
 import reborncore.common.fluid.FluidUtils;
 import reborncore.common.fluid.FluidValue;
@@ -71,7 +72,7 @@ public class IndustrialGrinderBlockEntity extends GenericMachineBlockEntity impl
 		BlockState advanced = TRContent.MachineBlocks.ADVANCED.getCasing().getDefaultState();
 		writer.translate(1, -1, -1)
 				.fill(0, 0, 0, 3, 1, 3, basic)
-				.ring(Direction.Axis.Y, 3, 1, 3, (view, pos) -> view.getBlockState(pos) == advanced, advanced, (view, pos) -> view.getBlockState(pos).getBlock() == Blocks.WATER, Blocks.WATER.getDefaultState())
+				.ring(Direction.Axis.Y, 3, 1, 3, MultiblockShape.matching(advanced), advanced, (view, pos) -> view.getBlockState(pos).getBlock() == Blocks.WATER, Blocks.WATER.getDefaultState())
 				.fill(0, 2, 0, 3, 3, 3, basic);
 	}
 
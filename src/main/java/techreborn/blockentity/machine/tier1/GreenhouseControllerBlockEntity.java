@@ -31,6 +31,7 @@ import net.minecraft.item.Items;
 import net.minecraft.server.world.ServerWorld;
 import net.minecraft.state.property.IntProperty;
 import net.minecraft.state.property.Properties;
+import net.minecraft.util.math.BlockBox;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import net.minecraft.world.World;
@@ -43,6 +44,7 @@ import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
 import reborncore.common.screen.builder.ScreenHandlerBuilder;
+import reborncore.common.util.BlockChangeListeners;
 import reborncore.common.util.ItemUtils;
 import reborncore.common.util.RebornInventory;
 import techreborn.blocks.lighting.LampBlock;
@@ -51,6 +53,7 @@ import techreborn.config.TechRebornConfig;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
 
+import java.util.BitSet;
 import java.util.Collections;
 import java.util.List;
 
@@ -64,7 +67,17 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 	private int workingIndex = 0;
 	// number of blocks from center
 	private final int range = 4;
-
+	// number of blocks above the crops which are harvested, covers sap of rubber trees
+	private static final int HEIGHT = 16;
+	@Nullable
+	private BlockChangeListeners.Registration cropListener;
+	// columns to check again after a block change
+	private final BitSet changedColumns = new BitSet();
+	// columns with something to harvest
+	private final BitSet ripeColumns = new BitSet();
+	// columns with a plant growth boost can tick
+	private final BitSet growingColumns = new BitSet();
+	private int boostIndex = 0;
 
 	public GreenhouseControllerBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.GREENHOUSE_CONTROLLER, pos, state);
@@ -74,32 +87,26 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 		if (world == null){
 			return;
 		}
-
-		int size = range * 2 + 1;
-		int offsetX = workingIndex % size;
-		int offsetZ = workingIndex / size;
-		BlockPos corner = multiblockCenter.add(-range, 0, -range);
-		BlockPos blockPos = corner.add(offsetX, 0, offsetZ);
-
-		workingIndex = (workingIndex + 1) % (size * size);
-		BlockState blockState = world.getBlockState(blockPos);
-		Block block = blockState.getBlock();
-
-		if (growthBoost) {
-			if (block instanceof Fertilizable || block instanceof PlantBlock
-					|| block instanceof SugarCaneBlock	|| block instanceof CactusBlock
-			) {
-				if (getStored() > TechRebornConfig.greenhouseControllerEnergyPerBonemeal) {
-					useEnergy(TechRebornConfig.greenhouseControllerEnergyPerBonemeal);
-					blockState.randomTick((ServerWorld) world, blockPos, world.random);
-				}
+		updateChangedColumns();
+
+		if (growthBoost && !growingColumns.isEmpty()) {
+			boostIndex = nextColumn(growingColumns, boostIndex);
+			BlockPos blockPos = getColumnPos(boostIndex++);
+			if (getStored() > TechRebornConfig.greenhouseControllerEnergyPerBonemeal) {
+				useEnergy(TechRebornConfig.greenhouseControllerEnergyPerBonemeal);
+				world.getBlockState(blockPos).randomTick((ServerWorld) world, blockPos, world.random);
 			}
 		}
 
-		if (getStored() < TechRebornConfig.greenhouseControllerEnergyPerHarvest){
+		if (getStored() < TechRebornConfig.greenhouseControllerEnergyPerHarvest || ripeColumns.isEmpty()){
 			return;
 		}
 
+		workingIndex = nextColumn(ripeColumns, workingIndex);
+		BlockPos blockPos = getColumnPos(workingIndex++);
+		BlockState blockState = world.getBlockState(blockPos);
+		Block block = blockState.getBlock();
+
 		if (block instanceof CropBlock cropBlock) {
 			processAgedCrop(blockState, blockPos, cropBlock.getAgeProperty(), ((CropBlock) block).getMaxAge(), 0);
 		} else if (block instanceof NetherWartBlock) {
@@ -147,6 +154,77 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 		}
 	}
 
+	/**
+	 * @return {@code int} First column of the set from the index on, wrapping around
+	 */
+	private static int nextColumn(BitSet columns, int index) {
+		int column = columns.nextSetBit(index);
+		return column >= 0 ? column : columns.nextSetBit(0);
+	}
+
+	private BlockPos getColumnPos(int column) {
+		int size = range * 2 + 1;
+		return multiblockCenter.add(column % size - range, 0, column / size - range);
+	}
+
+	private void onCropChanged(BlockPos blockPos, BlockState oldState, BlockState newState) {
+		int size = range * 2 + 1;
+		changedColumns.set((blockPos.getZ() - multiblockCenter.getZ() + range) * size + blockPos.getX() - multiblockCenter.getX() + range);
+	}
+
+	private void updateChangedColumns() {
+		for (int column = changedColumns.nextSetBit(0); column >= 0; column = changedColumns.nextSetBit(column + 1)) {
+			BlockPos blockPos = getColumnPos(column);
+			BlockState blockState = world.getBlockState(blockPos);
+			Block block = blockState.getBlock();
+			growingColumns.set(column, block instanceof Fertilizable || block instanceof PlantBlock
+					|| block instanceof SugarCaneBlock || block instanceof CactusBlock);
+			ripeColumns.set(column, isRipe(blockState, blockPos));
+		}
+		changedColumns.clear();
+	}
+
+	/**
+	 * Checks the same conditions as the harvest, without the inventory
+	 *
+	 * @return {@code boolean} True if the column has something to harvest
+	 */
+	private boolean isRipe(BlockState blockState, BlockPos blockPos) {
+		Block block = blockState.getBlock();
+		if (block instanceof CropBlock cropBlock) {
+			return blockState.get(cropBlock.getAgeProperty()) >= cropBlock.getMaxAge();
+		} else if (block instanceof NetherWartBlock) {
+			return blockState.get(NetherWartBlock.AGE) >= 3;
+		} else if (block instanceof SweetBerryBushBlock) {
+			return blockState.get(SweetBerryBushBlock.AGE) >= 3;
+		} else if (block instanceof CocoaBlock) {
+			return blockState.get(CocoaBlock.AGE) >= 2;
+		} else if (block instanceof PumpkinBlock) {
+			return true;
+		} else if (block instanceof SugarCaneBlock
+				|| block instanceof CactusBlock
+				|| block instanceof BambooBlock
+		) {
+			return world.getBlockState(blockPos.up()).getBlock() == block;
+		} else if (block instanceof BlockRubberLog) {
+			for (int y = 0; (blockState = world.getBlockState(blockPos.up(y))).getBlock() == block && y < 10; y++) {
+				if (blockState.get(BlockRubberLog.HAS_SAP)) return true;
+			}
+		} else if (block instanceof CaveVines) {
+			for (int y = 0; (blockState = world.getBlockState(blockPos.up(y))).getBlock() instanceof CaveVines; y++) {
+				if (blockState.get(Properties.BERRIES)) return true;
+			}
+		}
+		return false;
+	}
+
+	private void removeCropListener() {
+		if (cropListener != null) {
+			cropListener.remove();
+			cropListener = null;
+		}
+	}
+
 	private void processAgedCrop(BlockState blockState, BlockPos blockPos, IntProperty ageProperty, int maxAge, int newAge) {
 		if (world == null) {
 			return;
@@ -208,6 +286,14 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 		if (multiblockCenter == null) {
 			multiblockCenter = pos.offset(getFacing().getOpposite(), range + 1);
 		}
+		if (cropListener == null) {
+			// Only the columns which changed are checked again, the work cycles go to ripe and growing columns
+			int size = range * 2 + 1;
+			changedColumns.set(0, size * size);
+			BlockBox area = new BlockBox(multiblockCenter.getX() - range, multiblockCenter.getY(), multiblockCenter.getZ() - range,
+					multiblockCenter.getX() + range, multiblockCenter.getY() + HEIGHT - 1, multiblockCenter.getZ() + range);
+			cropListener = BlockChangeListeners.register((ServerWorld) world, area, this::onCropChanged);
+		}
 
 		charge(6);
 
@@ -228,6 +314,19 @@ public class GreenhouseControllerBlockEntity extends PowerAcceptorBlockEntity
 		}
 	}
 
+	@Override
+	public void markRemoved() {
+		super.markRemoved();
+		removeCropListener();
+	}
+
+	// UnloadHandler
+	@Override
+	public void onUnload() {
+		super.onUnload();
+		removeCropListener();
+	}
+
 	@Override
 	public boolean canProvideEnergy(@Nullable Direction side) {
 		return false;
@@ -32,6 +32,7 @@ import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.recipe.Ingredient;
+import net.minecraft.recipe.RecipeEntry;
 import net.minecraft.recipe.input.CraftingRecipeInput;
 import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.screen.ScreenHandler;
@@ -44,6 +45,7 @@ import reborncore.api.IToolDrop;
 import reborncore.api.blockentity.InventoryProvider;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.blocks.BlockMachineBase;
+import reborncore.common.crafting.RecipeIndex;
 import reborncore.common.crafting.RecipeUtils;
 import reborncore.common.powerSystem.PowerAcceptorBlockEntity;
 import reborncore.common.screen.BuiltScreenHandler;
@@ -359,13 +361,26 @@ public class RollingMachineBlockEntity extends PowerAcceptorBlockEntity
 		}
 		cachedInventoryStructure = fastIntlayout();
 		CraftingRecipeInput input = recipeInput(inv);
-		for (RollingMachineRecipe recipe : getAllRecipe(world)) {
-			if (recipe.getShapedRecipe().matches(input, world)) {
-				lastRecipe = recipe;
-				return recipe;
+		RecipeIndex<RollingMachineRecipe> index = RecipeUtils.getRecipeIndex(world, ModRecipes.ROLLING_MACHINE);
+		// A matching recipe has an ingredient for every item in the grid, so looking up the first item is enough.
+		ItemStack firstStack = ItemStack.EMPTY;
+		for (int i = 0; i < inv.size() && firstStack.isEmpty(); i++) {
+			firstStack = inv.getStack(i);
+		}
+		lastRecipe = firstStack.isEmpty() ? null : findMatchingRecipe(index.getEntries(firstStack.getItem()), input, world);
+		if (lastRecipe == null) {
+			lastRecipe = findMatchingRecipe(index.getUnindexed(), input, world);
+		}
+		return lastRecipe;
+	}
+
+	@Nullable
+	private static RollingMachineRecipe findMatchingRecipe(List<RecipeEntry<RollingMachineRecipe>> entries, CraftingRecipeInput input, World world) {
+		for (RecipeEntry<RollingMachineRecipe> entry : entries) {
+			if (entry.value().getShapedRecipe().matches(input, world)) {
+				return entry.value();
 			}
 		}
-		lastRecipe = null;
 		return null;
 	}
 
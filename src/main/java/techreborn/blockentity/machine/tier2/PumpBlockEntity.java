@@ -38,6 +38,7 @@ import net.minecraft.nbt.NbtCompound;
 import net.minecraft.network.codec.PacketCodecs;
 import net.minecraft.registry.RegistryKey;
 import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
 import net.minecraft.sound.SoundCategory;
 import net.minecraft.sound.SoundEvents;
 import net.minecraft.util.ItemScatterer;
@@ -60,9 +61,6 @@ import techreborn.config.TechRebornConfig;
 import techreborn.init.TRBlockEntities;
 import techreborn.init.TRContent;
 
-import java.util.ArrayList;
-import java.util.Iterator;
-
 /**
  * @author maxvar (coding), ashendi (textures)
  */
@@ -75,7 +73,8 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 	public static final int MIN_DEPTH = 1;
 	public static final int MAX_RANGE = 50;
 	public static final int MAX_DEPTH = 50;
-	private Iterator<BlockPos> finder;
+	@Nullable
+	private PumpFluidScanner scanner;
 	@Nullable
 	private Tank tank;
 	private boolean exhausted;
@@ -127,14 +126,17 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 	}
 
 	private void reset() {
-		finder = null;
+		removeScanner();
 		exhausted = false;
 		pumpedTargetBlockPos = null;
 		world.setBlockState(pos, world.getBlockState(pos).with(BlockMachineBase.ACTIVE, false));
 	}
 
-	private void setupFinder() {
-		this.finder = new BlockPosIterable(pos, range, depth).iterator();
+	private void removeScanner() {
+		if (scanner != null) {
+			scanner.remove();
+			scanner = null;
+		}
 	}
 
 	@Override
@@ -162,7 +164,8 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 		getTank().read(tagCompound, registryLookup);
 		this.range = tagCompound.getInt("range");
 		this.depth = tagCompound.getInt("depth");
-		finder = null;
+		removeScanner();
+		scanner = PumpFluidScanner.read(tagCompound, pos, range, depth, TechRebornConfig.pumpIterateOutwards);
 	}
 
 	@Override
@@ -171,6 +174,36 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 		getTank().write(tagCompound, registryLookup);
 		tagCompound.putInt("range", range);
 		tagCompound.putInt("depth", depth);
+		if (scanner != null) {
+			scanner.write(tagCompound);
+		}
+	}
+
+	@Override
+	public NbtCompound toInitialChunkDataNbt(RegistryWrapper.WrapperLookup registryLookup) {
+		NbtCompound compound = super.toInitialChunkDataNbt(registryLookup);
+		// Clients don't scan
+		compound.remove("scanCursor");
+		compound.remove("scanOutwards");
+		compound.remove("fluidLayers");
+		return compound;
+	}
+
+	@Override
+	public void markRemoved() {
+		super.markRemoved();
+		if (scanner != null) {
+			scanner.remove();
+		}
+	}
+
+	// UnloadHandler
+	@Override
+	public void onUnload() {
+		super.onUnload();
+		if (scanner != null) {
+			scanner.remove();
+		}
 	}
 
 	@Override
@@ -193,8 +226,11 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 
 		if (world == null || world.isClient) return;
 
-		//do nothing if all liquids have been exhausted
-		if (this.exhausted) return;
+		//do nothing if all liquids have been exhausted, unless new ones appeared in range
+		if (this.exhausted) {
+			if (scanner == null || !scanner.hasRemaining()) return;
+			this.exhausted = false;
+		}
 
 		//has a target block to pump?
 		if (pumpedTargetBlockPos != null) {
@@ -267,25 +303,20 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 	}
 
 	private void findNextToPump(World world) {
-		if (finder == null) {
-			setupFinder();
+		if (scanner == null) {
+			scanner = new PumpFluidScanner(pos, range, depth, TechRebornConfig.pumpIterateOutwards);
 		}
-		while (finder.hasNext()) {
-			BlockPos blockPos = finder.next();
-
-			BlockState blockState = world.getBlockState(blockPos);
-			Fluid fluid = getFluid(blockState);
-			if (fluid != Fluids.EMPTY && (fluid == getTank().getFluid() || getTank().getFluid() == Fluids.EMPTY)) {
-				//if any found - start pumping
-				world.setBlockState(pos, world.getBlockState(pos).with(BlockMachineBase.ACTIVE, true));
-				pumpedTargetBlockPos = blockPos;
-				return;
-			}
+		BlockPos blockPos = scanner.next((ServerWorld) world, getTank().getFluid());
+		markDirty();
+		if (blockPos != null) {
+			//if any found - start pumping
+			world.setBlockState(pos, world.getBlockState(pos).with(BlockMachineBase.ACTIVE, true));
+			pumpedTargetBlockPos = blockPos;
 		}
 	}
 
 	@NotNull
-	private Fluid getFluid(BlockState blockState) {
+	static Fluid getFluid(BlockState blockState) {
 		FluidState fluidState = blockState.getFluidState();
 		Fluid fluid = fluidState.getFluid();
 		if (fluidState.getLevel() == 8) return fluid;
@@ -312,59 +343,4 @@ public class PumpBlockEntity extends GenericMachineBlockEntity implements BuiltS
 	public void handleRangeGuiInputFromClient(int buttonAmount) {
 		setRange(range + buttonAmount);
 	}
-
-	static class BlockPosIterable implements Iterable<BlockPos> {
-		int index;
-		final int layerSize;
-		final int m;
-		final ArrayList<MeasuredPos> layer;
-
-		public BlockPosIterable(BlockPos centerTop, int range, int depth) {
-			this.index = 0;
-			this.layerSize = (range * 2 + 1) * (range * 2 + 1);
-			this.m = layerSize * depth;
-			layer = new ArrayList<>(layerSize);
-			for (int i = centerTop.getX() - range; i <= centerTop.getX() + range; i++)
-				for (int j = centerTop.getZ() - range; j <= centerTop.getZ() + range; j++)
-					layer.add(new MeasuredPos(i, centerTop.getY(), j, centerTop.getSquaredDistance(i, centerTop.getY(), j)));
-			layer.sort((o1, o2) -> (int) (o1.weight - o2.weight));
-		}
-
-		/**
-		 * Returns an iterator over elements of type {@code T}.
-		 *
-		 * @return an Iterator.
-		 */
-		@NotNull
-		@Override
-		public Iterator<BlockPos> iterator() {
-			return new Iterator<>() {
-				@Override
-				public boolean hasNext() {
-					return index < m;
-				}
-
-				@Override
-				public BlockPos next() {
-					final BlockPos pos;
-					if (TechRebornConfig.pumpIterateOutwards) {
-						pos = layer.get(index % layerSize).down(1 + index / layerSize);
-					} else {
-						pos = layer.get((m - index - 1) % layerSize).down(1 + (m - index - 1) / layerSize);
-					}
-					index++;
-					return pos;
-				}
-			};
-		}
-
-		static class MeasuredPos extends BlockPos {
-			private final double weight;
-
-			public MeasuredPos(int x, int y, int z, double weight) {
-				super(x, y, z);
-				this.weight = weight;
-			}
-		}
-	}
 }
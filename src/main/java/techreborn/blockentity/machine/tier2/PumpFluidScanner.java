@@ -0,0 +1,328 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2022 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.machine.tier2;
+
+import it.unimi.dsi.fastutil.ints.IntArrays;
+import net.minecraft.block.BlockState;
+import net.minecraft.fluid.Fluid;
+import net.minecraft.fluid.Fluids;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockBox;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.ChunkSectionPos;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.ChunkSection;
+import org.jetbrains.annotations.Nullable;
+import reborncore.common.util.BlockChangeListeners;
+
+import java.util.Arrays;
+
+/**
+ * Finds the source blocks a {@link PumpBlockEntity} pumps, layer by layer with the columns sorted by their
+ * distance to the pump.
+ * <p>
+ * The scanner keeps an index with a bit per layer for every column. It is built by reading the chunk sections
+ * directly, skipping the sections whose palette holds no source fluid, and kept up to date by block changes
+ * in the range, so finding the next target only walks the index. The index and the scan cursor are saved
+ * with the pump.
+ */
+class PumpFluidScanner {
+	private static final ColumnOrder[] COLUMN_ORDERS = new ColumnOrder[PumpBlockEntity.MAX_RANGE + 1];
+
+	private final BlockPos center;
+	private final int range;
+	private final int depth;
+	private final boolean outwards;
+	private final ColumnOrder columns;
+	private final int layerSize;
+	private final int size;
+	/**
+	 * Bit n is set if layer n of the column holds a source fluid, columns in scan order
+	 */
+	@Nullable
+	private long[] fluidLayers;
+	private final int[] layerFluids;
+	private int cursor = 0;
+	/**
+	 * The index was loaded from NBT and may miss fluids which appeared while the pump was unloaded
+	 */
+	private boolean loaded = false;
+	@Nullable
+	private BlockChangeListeners.Registration listener;
+
+	PumpFluidScanner(BlockPos center, int range, int depth, boolean outwards) {
+		this.center = center.toImmutable();
+		this.range = range;
+		this.depth = depth;
+		this.outwards = outwards;
+		this.columns = getColumnOrder(range);
+		this.layerSize = columns.offsets.length;
+		this.size = layerSize * depth;
+		this.layerFluids = new int[depth];
+	}
+
+	/**
+	 * Moves the cursor to the next source block of the fluid
+	 *
+	 * @param world {@link ServerWorld} World of the pump
+	 * @param fluid {@link Fluid} Fluid to pump, or {@link Fluids#EMPTY} to pump any fluid
+	 * @return {@link BlockPos} Position of the source block, or null if the range is exhausted
+	 */
+	@Nullable
+	BlockPos next(ServerWorld world, Fluid fluid) {
+		if (fluidLayers == null) {
+			build(world);
+		}
+		if (listener == null) {
+			BlockBox box = new BlockBox(center.getX() - range, center.getY() - depth, center.getZ() - range,
+				center.getX() + range, center.getY() - 1, center.getZ() + range);
+			listener = BlockChangeListeners.register(world, box, this::onBlockChanged);
+		}
+		BlockPos target = find(world, fluid);
+		if (target == null && loaded) {
+			// Scan once more with a fresh index before giving up
+			build(world);
+			cursor = 0;
+			target = find(world, fluid);
+		}
+		return target;
+	}
+
+	/**
+	 * @return {@code boolean} True if the cursor didn't reach the end of the range, which happens when new
+	 * source blocks appear behind it
+	 */
+	boolean hasRemaining() {
+		return cursor < size;
+	}
+
+	@Nullable
+	private BlockPos find(ServerWorld world, Fluid fluid) {
+		while (cursor < size) {
+			int index = outwards ? cursor : size - cursor - 1;
+			int layer = index / layerSize;
+			if (layerFluids[layer] == 0) {
+				cursor = outwards ? (layer + 1) * layerSize : size - layer * layerSize;
+				continue;
+			}
+			int column = index % layerSize;
+			cursor++;
+			if ((fluidLayers[column] & (1L << layer)) == 0) {
+				continue;
+			}
+			BlockPos target = getPos(column, layer);
+			Fluid found = PumpBlockEntity.getFluid(world.getBlockState(target));
+			if (found == Fluids.EMPTY) {
+				// Only happens with a saved index
+				clear(column, layer);
+				continue;
+			}
+			if (fluid == Fluids.EMPTY || found == fluid) {
+				return target;
+			}
+		}
+		return null;
+	}
+
+	private void build(ServerWorld world) {
+		fluidLayers = new long[layerSize];
+		Arrays.fill(layerFluids, 0);
+		loaded = false;
+
+		int minX = center.getX() - range;
+		int maxX = center.getX() + range;
+		int minZ = center.getZ() - range;
+		int maxZ = center.getZ() + range;
+		int minY = center.getY() - depth;
+		int maxY = center.getY() - 1;
+		for (int chunkX = ChunkSectionPos.getSectionCoord(minX); chunkX <= ChunkSectionPos.getSectionCoord(maxX); chunkX++) {
+			for (int chunkZ = ChunkSectionPos.getSectionCoord(minZ); chunkZ <= ChunkSectionPos.getSectionCoord(maxZ); chunkZ++) {
+				Chunk chunk = world.getChunk(chunkX, chunkZ);
+				ChunkSection[] sections = chunk.getSectionArray();
+				for (int sectionY = ChunkSectionPos.getSectionCoord(minY); sectionY <= ChunkSectionPos.getSectionCoord(maxY); sectionY++) {
+					int sectionIndex = chunk.sectionCoordToIndex(sectionY);
+					if (sectionIndex < 0 || sectionIndex >= sections.length) {
+						continue;
+					}
+					ChunkSection section = sections[sectionIndex];
+					// The palette tells if the section can hold any source block without reading the blocks
+					if (section.isEmpty() || !section.hasAny(PumpFluidScanner::isSource)) {
+						continue;
+					}
+					int x0 = Math.max(minX, ChunkSectionPos.getBlockCoord(chunkX));
+					int x1 = Math.min(maxX, ChunkSectionPos.getBlockCoord(chunkX) + 15);
+					int y0 = Math.max(minY, ChunkSectionPos.getBlockCoord(sectionY));
+					int y1 = Math.min(maxY, ChunkSectionPos.getBlockCoord(sectionY) + 15);
+					int z0 = Math.max(minZ, ChunkSectionPos.getBlockCoord(chunkZ));
+					int z1 = Math.min(maxZ, ChunkSectionPos.getBlockCoord(chunkZ) + 15);
+					for (int x = x0; x <= x1; x++) {
+						for (int z = z0; z <= z1; z++) {
+							int column = getColumn(x, z);
+							for (int y = y0; y <= y1; y++) {
+								if (isSource(section.getBlockState(x & 15, y & 15, z & 15))) {
+									set(column, center.getY() - 1 - y);
+								}
+							}
+						}
+					}
+				}
+			}
+		}
+	}
+
+	private void onBlockChanged(BlockPos changedPos, BlockState oldState, BlockState newState) {
+		if (fluidLayers == null) {
+			return;
+		}
+		int column = getColumn(changedPos.getX(), changedPos.getZ());
+		int layer = center.getY() - 1 - changedPos.getY();
+		if (!isSource(newState)) {
+			clear(column, layer);
+			return;
+		}
+		set(column, layer);
+		int index = layer * layerSize + column;
+		int scanIndex = outwards ? index : size - index - 1;
+		if (scanIndex < cursor) {
+			cursor = scanIndex;
+		}
+	}
+
+	private void set(int column, int layer) {
+		long bit = 1L << layer;
+		if ((fluidLayers[column] & bit) == 0) {
+			fluidLayers[column] |= bit;
+			layerFluids[layer]++;
+		}
+	}
+
+	private void clear(int column, int layer) {
+		long bit = 1L << layer;
+		if ((fluidLayers[column] & bit) != 0) {
+			fluidLayers[column] &= ~bit;
+			layerFluids[layer]--;
+		}
+	}
+
+	private int getColumn(int x, int z) {
+		int side = range * 2 + 1;
+		return columns.orderOf[(x - center.getX() + range) * side + (z - center.getZ() + range)];
+	}
+
+	private BlockPos getPos(int column, int layer) {
+		int side = range * 2 + 1;
+		int offset = columns.offsets[column];
+		return new BlockPos(center.getX() + offset / side - range, center.getY() - 1 - layer, center.getZ() + offset % side - range);
+	}
+
+	/**
+	 * Stops listening to block changes, {@link #next} starts listening again
+	 */
+	void remove() {
+		if (listener != null) {
+			listener.remove();
+			listener = null;
+		}
+	}
+
+	void write(NbtCompound tag) {
+		if (fluidLayers == null) {
+			return;
+		}
+		tag.putInt("scanCursor", cursor);
+		tag.putBoolean("scanOutwards", outwards);
+		tag.putLongArray("fluidLayers", fluidLayers);
+	}
+
+	/**
+	 * @return {@link PumpFluidScanner} Scanner saved in the tag, or null if there is none or it doesn't match
+	 * the range, depth or scan direction of the pump
+	 */
+	@Nullable
+	static PumpFluidScanner read(NbtCompound tag, BlockPos center, int range, int depth, boolean outwards) {
+		if (!tag.contains("fluidLayers") || tag.getBoolean("scanOutwards") != outwards) {
+			return null;
+		}
+		PumpFluidScanner scanner = new PumpFluidScanner(center, range, depth, outwards);
+		long[] fluidLayers = tag.getLongArray("fluidLayers");
+		if (fluidLayers.length != scanner.layerSize) {
+			return null;
+		}
+		scanner.fluidLayers = fluidLayers;
+		long mask = (1L << depth) - 1;
+		for (int column = 0; column < fluidLayers.length; column++) {
+			fluidLayers[column] &= mask;
+			for (long bits = fluidLayers[column]; bits != 0; bits &= bits - 1) {
+				scanner.layerFluids[Long.numberOfTrailingZeros(bits)]++;
+			}
+		}
+		scanner.cursor = Math.clamp(tag.getInt("scanCursor"), 0, scanner.size);
+		scanner.loaded = true;
+		return scanner;
+	}
+
+	private static boolean isSource(BlockState state) {
+		return PumpBlockEntity.getFluid(state) != Fluids.EMPTY;
+	}
+
+	private static ColumnOrder getColumnOrder(int range) {
+		ColumnOrder order = COLUMN_ORDERS[range];
+		if (order == null) {
+			order = ColumnOrder.create(range);
+			COLUMN_ORDERS[range] = order;
+		}
+		return order;
+	}
+
+	/**
+	 * Columns of a range sorted by their distance to the center, shared by all pumps with the same range
+	 *
+	 * @param offsets Offset of each column, in scan order
+	 * @param orderOf Position in the scan order of each offset
+	 */
+	private record ColumnOrder(int[] offsets, int[] orderOf) {
+		static ColumnOrder create(int range) {
+			int side = range * 2 + 1;
+			int[] offsets = new int[side * side];
+			for (int i = 0; i < offsets.length; i++) {
+				offsets[i] = i;
+			}
+			// Stable, columns at the same distance keep their order along x, then z
+			IntArrays.mergeSort(offsets, (a, b) -> Integer.compare(distance(a, side, range), distance(b, side, range)));
+			int[] orderOf = new int[offsets.length];
+			for (int i = 0; i < offsets.length; i++) {
+				orderOf[offsets[i]] = i;
+			}
+			return new ColumnOrder(offsets, orderOf);
+		}
+
+		private static int distance(int offset, int side, int range) {
+			int x = offset / side - range;
+			int z = offset % side - range;
+			return x * x + z * z;
+		}
+	}
+}
@@ -32,6 +32,7 @@ import net.minecraft.registry.RegistryWrapper;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.Direction;
 import org.apache.commons.lang3.tuple.Pair;
+import org.jetbrains.annotations.Nullable;
 import reborncore.api.IToolDrop;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import techreborn.init.TRBlockEntities;
@@ -41,14 +42,23 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.LinkedList;
+import java.util.Objects;
 
 import static techreborn.blockentity.storage.energy.lesu.LapotronicSUBlockEntity.*;
 
 public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 		implements IToolDrop {
 
-	public LapotronicSUBlockEntity master = null;
+	/**
+	 * Position of the LESU this block is connected to, null if it isn't connected. Saved, so the LESU doesn't
+	 * have to walk the bank again when its chunk loads.
+	 */
+	@Nullable
+	private BlockPos masterPos = null;
 	public byte neighbors = 0b000000;
+	/**
+	 * Sides linking to the children of this block in the spanning tree of the bank, saved as well
+	 */
 	public byte links = 0b000000;
 
 	public LSUStorageBlockEntity(BlockPos pos, BlockState state) {
@@ -69,20 +79,20 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 					neighbors |= FLAGS[i];
 					lsu_storage.neighbors |= OPP_FLAGS[i];
 					lsu_storage.markDirty();
-					if (lsu_storage.master == null) {
+					if (lsu_storage.masterPos == null) {
 						flagCanConnect |= FLAGS[i];
 						canConnect.add(lsu_storage);
 						visited.add(lsu_storage.pos);
-					} else if (master == null) {
-						master = lsu_storage.master;
+					} else if (masterPos == null) {
+						masterPos = lsu_storage.masterPos;
 						lsu_storage.links |= OPP_FLAGS[i];
 					}
 				}
 				case LapotronicSUBlockEntity lapotronic_su -> {
 					lapotronic_su.neighbors |= OPP_FLAGS[i];
 					lapotronic_su.markDirty();
-					if (master == null) {
-						master = lapotronic_su;
+					if (masterPos == null) {
+						masterPos = lapotronic_su.getPos();
 					}
 				}
 				case null, default -> {}
@@ -91,14 +101,15 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 		if (neighbors != 0b000000) {
 			markDirty();
 		}
-		if (master == null) {
+		if (masterPos == null) {
 			return;
 		}
 
 		// 2. Check if only one is added
-		int count = master.getConnectedBlocksNum() + 1;
+		LSUTopology topology = LSUTopology.get(world);
+		int count = Math.max(topology.getConnectedBlocks(masterPos), 0) + 1;
 		if (flagCanConnect == 0b000000) {
-			master.setConnectedBlocksNum(count);
+			topology.setConnectedBlocks(world, masterPos, count);
 			return;
 		}
 
@@ -108,7 +119,8 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 		BlockPos linkPos;
 		while (!canConnect.isEmpty()) {
 			lsu_storage = canConnect.poll();
-			lsu_storage.master = master;
+			lsu_storage.masterPos = masterPos;
+			lsu_storage.markDirty();
 			count++;
 			for (int i = 0; i < DIRECTIONS_LENGTH; i++) {
 				if ((lsu_storage.neighbors & FLAGS[i]) != 0) {
@@ -122,7 +134,7 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 		}
 
 		// 4. Set the number of connected blocks
-		master.setConnectedBlocksNum(count);
+		topology.setConnectedBlocks(world, masterPos, count);
 	}
 
 	public final void disconnectNeighbors() {
@@ -147,15 +159,16 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 				lapotronic_su.markDirty();
 			}
 		}
-		if (master == null) {
+		if (masterPos == null) {
 			return;
 		}
 
 		// 2. Check if only one is deleted
-		int count = master.getConnectedBlocksNum() - 1;
+		LSUTopology topology = LSUTopology.get(world);
+		int count = Math.max(topology.getConnectedBlocks(masterPos), 1) - 1;
 		int size = branches.size();
 		if (size == 0) {
-			master.setConnectedBlocksNum(count);
+			topology.setConnectedBlocks(world, masterPos, count);
 			return;
 		}
 
@@ -191,9 +204,10 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 				linkPos = lsu_storage.pos.offset(DIRECTIONS[pair.getRight()]);
 				if (!visited.containsKey(linkPos)) {
 					link_lsu_storage = fastGetLSUS(linkPos);
-					if (link_lsu_storage.master == master) {
+					if (Objects.equals(link_lsu_storage.masterPos, masterPos)) {
 						// 3.3 Connect the block
 						link_lsu_storage.links |= OPP_FLAGS[pair.getRight()];
+						link_lsu_storage.markDirty();
 
 						// 3.4 Change route direction from current location to start point
 						LSUStorageBlockEntity child = lsu_storage;
@@ -203,6 +217,8 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 								if ((parent.links & FLAGS[j]) != 0 && parent.pos.offset(DIRECTIONS[j]).equals(child.pos)) {
 									parent.links ^= FLAGS[j];
 									child.links |= OPP_FLAGS[j];
+									parent.markDirty();
+									child.markDirty();
 									break;
 								}
 							}
@@ -211,7 +227,7 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 						}
 
 						// 3.5 Delete only one
-						master.setConnectedBlocksNum(count);
+						topology.setConnectedBlocks(world, masterPos, count);
 						return;
 					}
 				}
@@ -219,10 +235,9 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 
 			// 3.6 Failure to find a block connected to the master will delete all connected blocks
 			for (LSUStorageBlockEntity blockEntity : canDelete) {
-				blockEntity.master = null;
-				blockEntity.links = 0b000000;
+				blockEntity.clearMaster();
 			}
-			master.setConnectedBlocksNum(count - canDelete.size());
+			topology.setConnectedBlocks(world, masterPos, count - canDelete.size());
 			return;
 		}
 
@@ -291,7 +306,7 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 					}
 
 					// 4.5 Branch passes check
-					if (fastGetLSUS(linkPos).master == master) {
+					if (Objects.equals(fastGetLSUS(linkPos).masterPos, masterPos)) {
 						depend[i][i] = true;
 						canConnect.addFirst(Pair.of(i, pair));
 						break;
@@ -333,6 +348,7 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 				index = param.getRight();
 				link_lsu_storage = lsu_storage.fastGetLSUS(DIRECTIONS[index]);
 				link_lsu_storage.links |= OPP_FLAGS[index];
+				link_lsu_storage.markDirty();
 
 				// 4.9 Change route direction from current location to start point
 				visited = visitedList.get(i);
@@ -343,6 +359,8 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 						if ((parent.links & FLAGS[k]) != 0 && parent.pos.offset(DIRECTIONS[k]).equals(child.pos)) {
 							parent.links ^= FLAGS[k];
 							child.links |= OPP_FLAGS[k];
+							parent.markDirty();
+							child.markDirty();
 							break;
 						}
 					}
@@ -358,13 +376,31 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 			// 4.11 Failure to find a block connected to the master will delete all connected blocks
 			if (!depend[i][i]) {
 				for (LSUStorageBlockEntity blockEntity : canDeleteList.get(i)) {
-					blockEntity.master = null;
-					blockEntity.links = 0b000000;
+					blockEntity.clearMaster();
 				}
 				count -= canDeleteList.get(i).size();
 			}
 		}
-		master.setConnectedBlocksNum(count);
+		topology.setConnectedBlocks(world, masterPos, count);
+	}
+
+	@Nullable
+	public BlockPos getMasterPos() {
+		return masterPos;
+	}
+
+	void setMaster(LapotronicSUBlockEntity master) {
+		masterPos = master.getPos();
+		markDirty();
+	}
+
+	/**
+	 * Disconnects the block from its LESU and the spanning tree
+	 */
+	void clearMaster() {
+		masterPos = null;
+		links = 0b000000;
+		markDirty();
 	}
 
 	public LSUStorageBlockEntity fastGetLSUS(BlockPos pos) {
@@ -389,6 +425,10 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 	public void writeNbt(NbtCompound tagCompound, RegistryWrapper.WrapperLookup registryLookup) {
 		super.writeNbt(tagCompound, registryLookup);
 		tagCompound.putByte("neighbors", neighbors);
+		tagCompound.putByte("links", links);
+		if (masterPos != null) {
+			tagCompound.putLong("master", masterPos.asLong());
+		}
 	}
 
 	@Override
@@ -400,6 +440,8 @@ public class LSUStorageBlockEntity extends MachineBaseBlockEntity
 			// Compatible with older versions: judge not initialized
 			neighbors = (byte) 0b10111111;
 		}
+		links = tagCompound.getByte("links");
+		masterPos = tagCompound.contains("master") ? BlockPos.fromLong(tagCompound.getLong("master")) : null;
 	}
 
 	// MachineBaseBlockEntity
@@ -0,0 +1,109 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.blockentity.storage.energy.lesu;
+
+import it.unimi.dsi.fastutil.longs.Long2IntMap;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.nbt.NbtCompound;
+import net.minecraft.registry.RegistryWrapper;
+import net.minecraft.server.world.ServerWorld;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.PersistentState;
+import net.minecraft.world.World;
+
+/**
+ * Number of storage blocks connected to each Lapotronic SU of a world, keyed by the position of the LESU.
+ * <p>
+ * Storage blocks save the position of their LESU and their links of the spanning tree, so a LESU restores
+ * its size from here when its chunk loads instead of walking the whole bank. The count stays correct
+ * while the LESU itself is unloaded.
+ */
+public class LSUTopology extends PersistentState {
+	public static final PersistentState.Type<LSUTopology> TYPE = new Type<>(LSUTopology::new, LSUTopology::fromTag, null);
+	private static final String KEY = "techreborn_lsu_topology";
+
+	private final Long2IntMap connectedBlocks = new Long2IntOpenHashMap();
+
+	public LSUTopology() {
+		connectedBlocks.defaultReturnValue(-1);
+	}
+
+	public static LSUTopology get(World world) {
+		return ((ServerWorld) world).getPersistentStateManager().getOrCreate(TYPE, KEY);
+	}
+
+	public static LSUTopology fromTag(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+		LSUTopology topology = new LSUTopology();
+		long[] masters = tag.getLongArray("masters");
+		int[] counts = tag.getIntArray("counts");
+		for (int i = 0; i < Math.min(masters.length, counts.length); i++) {
+			topology.connectedBlocks.put(masters[i], counts[i]);
+		}
+		return topology;
+	}
+
+	@Override
+	public NbtCompound writeNbt(NbtCompound tag, RegistryWrapper.WrapperLookup registryLookup) {
+		long[] masters = new long[connectedBlocks.size()];
+		int[] counts = new int[connectedBlocks.size()];
+		int i = 0;
+		for (Long2IntMap.Entry entry : connectedBlocks.long2IntEntrySet()) {
+			masters[i] = entry.getLongKey();
+			counts[i++] = entry.getIntValue();
+		}
+		tag.putLongArray("masters", masters);
+		tag.putIntArray("counts", counts);
+		return tag;
+	}
+
+	/**
+	 * @param master {@link BlockPos} Position of the LESU
+	 * @return {@code int} Number of connected storage blocks, or -1 if the LESU is not indexed
+	 */
+	public int getConnectedBlocks(BlockPos master) {
+		return connectedBlocks.get(master.asLong());
+	}
+
+	/**
+	 * Updates the number of connected storage blocks, and the LESU itself if it is loaded
+	 *
+	 * @param world  {@link World} World of the LESU
+	 * @param master {@link BlockPos} Position of the LESU
+	 * @param count  {@code int} Number of connected storage blocks
+	 */
+	public void setConnectedBlocks(World world, BlockPos master, int count) {
+		connectedBlocks.put(master.asLong(), count);
+		markDirty();
+		if (world.isChunkLoaded(master) && world.getBlockEntity(master) instanceof LapotronicSUBlockEntity lesu) {
+			lesu.setConnectedBlocksNum(count);
+		}
+	}
+
+	public void remove(BlockPos master) {
+		if (connectedBlocks.remove(master.asLong()) != -1) {
+			markDirty();
+		}
+	}
+}
@@ -60,6 +60,10 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 
 	private int connectedBlocks = 0;
 	public byte neighbors = 0b000000;
+	/**
+	 * Set once the connected blocks are tracked by {@link LSUTopology}, older saves walk the bank once on load
+	 */
+	private boolean indexed = false;
 
 	public LapotronicSUBlockEntity(BlockPos pos, BlockState state) {
 		super(TRBlockEntities.LAPOTRONIC_SU, pos, state, "LESU", 2, TRContent.Machine.LAPOTRONIC_SU.block, RcEnergyTier.LOW, TechRebornConfig.lesuStoragePerBlock);
@@ -103,6 +107,14 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 		super.onLoad();
 		if (world == null || world.isClient) return;
 
+		// Restore the size from the topology, the storage blocks saved their links and master
+		LSUTopology topology = LSUTopology.get(world);
+		int indexedBlocks = topology.getConnectedBlocks(pos);
+		if (indexed && indexedBlocks >= 0) {
+			setConnectedBlocksNum(indexedBlocks);
+			return;
+		}
+
 		// 1. Collect information and change the relationship between surrounding blocks
 		byte flagInvalidNeighbors = 0b000000;
 		LinkedList<LSUStorageBlockEntity> canConnect = new LinkedList<>();
@@ -110,7 +122,8 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 		for (int i = 0; i < DIRECTIONS_LENGTH; i++) {
 			if ((neighbors & FLAGS[i]) != 0) {
 				if (world.getBlockEntity(pos.offset(DIRECTIONS[i])) instanceof LSUStorageBlockEntity lsu_storage) {
-					if (lsu_storage.master == null) {
+					// Storages saved with this master are walked again when its topology entry is missing
+					if (lsu_storage.getMasterPos() == null || pos.equals(lsu_storage.getMasterPos())) {
 						canConnect.add(lsu_storage);
 						lsu_storage.addTo(visited);
 					}
@@ -131,7 +144,7 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 		BlockPos linkPos;
 		while (!canConnect.isEmpty()) {
 			lsu_storage = canConnect.poll();
-			lsu_storage.master = this;
+			lsu_storage.setMaster(this);
 			connectedBlocks++;
 			for (int i = 0; i < DIRECTIONS_LENGTH; i++) {
 				if ((lsu_storage.neighbors & FLAGS[i]) != 0) {
@@ -145,8 +158,9 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 		}
 
 		// 4. Update energy configuration
-		setMaxStorage();
-		setIORate();
+		indexed = true;
+		markDirty();
+		topology.setConnectedBlocks(world, pos, connectedBlocks);
 	}
 
 	public void disconnectNetwork() {
@@ -158,7 +172,7 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 		for (int i = 0; i < DIRECTIONS_LENGTH; i++) {
 			if ((neighbors & FLAGS[i]) != 0) {
 				lsu_storage = fastGetLSUS(DIRECTIONS[i]);
-				if (lsu_storage.master == this) {
+				if (pos.equals(lsu_storage.getMasterPos())) {
 					canDelete.add(lsu_storage);
 				}
 			}
@@ -172,9 +186,10 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 					canDelete.add(lsu_storage.fastGetLSUS(DIRECTIONS[i]));
 				}
 			}
-			lsu_storage.master = null;
-			lsu_storage.links = 0b000000;
+			lsu_storage.clearMaster();
 		}
+		LSUTopology.get(world).remove(pos);
+		indexed = false;
 	}
 
 	public final void checkNeighbors() {
@@ -216,6 +231,7 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 	public void writeNbt(NbtCompound tagCompound, RegistryWrapper.WrapperLookup registryLookup) {
 		super.writeNbt(tagCompound, registryLookup);
 		tagCompound.putByte("neighbors", neighbors);
+		tagCompound.putBoolean("indexed", indexed);
 	}
 
 	@Override
@@ -227,5 +243,6 @@ public class LapotronicSUBlockEntity extends EnergyStorageBlockEntity implements
 			// Compatible with older versions: judge not initialized
 			neighbors = 0b111111;
 		}
+		indexed = tagCompound.getBoolean("indexed");
 	}
 }
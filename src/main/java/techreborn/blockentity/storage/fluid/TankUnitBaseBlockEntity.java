@@ -153,6 +153,12 @@ public class TankUnitBaseBlockEntity extends MachineBaseBlockEntity implements I
 		return type.capacity.fraction(1200);
 	}
 
+	@Override
+	public boolean adaptiveFluidTransfer() {
+		// Keep the fill rate above
+		return false;
+	}
+
 	// InventoryProvider
 	@Override
 	public RebornInventory<TankUnitBaseBlockEntity> getInventory() {
@@ -26,10 +26,11 @@ package techreborn.blockentity.storage.item;
 
 import net.fabricmc.fabric.api.transfer.v1.item.InventoryStorage;
 import net.fabricmc.fabric.api.transfer.v1.item.ItemVariant;
-import net.fabricmc.fabric.api.transfer.v1.item.base.SingleStackStorage;
-import net.fabricmc.fabric.api.transfer.v1.storage.SlottedStorage;
 import net.fabricmc.fabric.api.transfer.v1.storage.Storage;
 import net.fabricmc.fabric.api.transfer.v1.storage.base.CombinedSlottedStorage;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleSlotStorage;
+import net.fabricmc.fabric.api.transfer.v1.storage.base.SingleVariantStorage;
+import net.fabricmc.fabric.api.transfer.v1.transaction.TransactionContext;
 import net.minecraft.block.BlockState;
 import net.minecraft.component.DataComponentTypes;
 import net.minecraft.component.type.NbtComponent;
@@ -53,6 +54,7 @@ import reborncore.api.blockentity.InventoryProvider;
 import reborncore.common.blockentity.MachineBaseBlockEntity;
 import reborncore.common.screen.BuiltScreenHandler;
 import reborncore.common.screen.BuiltScreenHandlerProvider;
+import reborncore.common.screen.Syncable;
 import reborncore.common.screen.builder.ScreenHandlerBuilder;
 import reborncore.common.util.ItemUtils;
 import reborncore.common.util.RebornInventory;
@@ -75,9 +77,10 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	private int maxCapacity;
 	private int serverCapacity = -1;
 
-	private ItemStack storeItemStack;
-	// Fabric transfer API support for the internal stack (one per direction);
-	private final SingleStackStorage[] internalStoreStorage = new SingleStackStorage[6];
+	// Everything stored besides the output slot, as a variant and a count so large amounts don't need a stack
+	private final StoredItemStorage storage = new StoredItemStorage();
+	// Fabric transfer API views of the storage (one per direction)
+	private final SideStorage[] sideStorages = new SideStorage[6];
 
 	private TRContent.StorageUnit type;
 
@@ -100,7 +103,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		if(serverCapacity == -1){
 			this.maxCapacity = type.capacity;
 		}
-		storeItemStack = ItemStack.EMPTY;
+		clearStorage();
 		this.type = type;
 	}
 
@@ -114,10 +117,8 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		}
 
 		// Only set lockedItem in response to user input
-		ItemStack stack = getStoredStack().copy();
-		stack.setCount(1);
-		lockedItemStack = value ? stack : ItemStack.EMPTY;
-		syncWithAll();
+		lockedItemStack = value ? getStoredVariant().toStack() : ItemStack.EMPTY;
+		syncFields();
 	}
 
 	public boolean canModifyLocking() {
@@ -131,39 +132,45 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	}
 
 	private void populateOutput() {
-		// Set to storeItemStack to get the stack type
-		ItemStack output = storeItemStack.copy();
-
-		int outputSlotCount = inventory.getStack(OUTPUT_SLOT).getCount();
-
-		// Set to current outputSlot count
-		output.setCount(outputSlotCount);
-
-		// Calculate amount needed to fill stack in output slot
-		int amountToFill = getStoredStack().getMaxCount() - outputSlotCount;
-
-		if (storeItemStack.getCount() >= amountToFill) {
-			storeItemStack.decrement(amountToFill);
+		ItemStack output = inventory.getStack(OUTPUT_SLOT);
+		int outputSlotCount = output.getCount();
+		if (output.isEmpty()) {
+			output = storage.variant.toStack();
+		}
 
-			if (storeItemStack.isEmpty()) {
-				storeItemStack = ItemStack.EMPTY;
-			}
+		// Move as much as needed to fill the stack in the output slot
+		int amountToFill = (int) Math.min(output.getMaxCount() - outputSlotCount, storage.amount);
+		output.setCount(outputSlotCount + amountToFill);
+		storage.amount -= amountToFill;
 
-			output.increment(amountToFill);
-		} else {
-			output.increment(storeItemStack.getCount());
-			storeItemStack = ItemStack.EMPTY;
+		if (storage.amount == 0) {
+			clearStorage();
 		}
 
 		inventory.setStack(OUTPUT_SLOT, output);
 	}
 
-	private void addStoredItemCount(int amount) {
-		storeItemStack.increment(amount);
+	private void clearStorage() {
+		storage.variant = ItemVariant.blank();
+		storage.amount = 0;
 	}
 
+	/**
+	 * @return {@link ItemVariant} The stored item, taken from the output slot if nothing else is stored
+	 */
+	public ItemVariant getStoredVariant() {
+		return storage.isResourceBlank() ? ItemVariant.of(inventory.getStack(OUTPUT_SLOT)) : storage.variant;
+	}
+
+	/**
+	 * @return {@link ItemStack} A stack of the stored item, its count isn't the stored amount
+	 */
 	public ItemStack getStoredStack() {
-		return storeItemStack.isEmpty() ? inventory.getStack(OUTPUT_SLOT) : storeItemStack;
+		ItemStack output = inventory.getStack(OUTPUT_SLOT);
+		if (!output.isEmpty() || storage.isResourceBlank()) {
+			return output;
+		}
+		return storage.variant.toStack();
 	}
 
 	// Returns the ItemStack to be displayed to the player via UI / model
@@ -180,8 +187,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		ItemStack returnStack = ItemStack.EMPTY;
 
 		if (!isEmpty()) {
-			returnStack = getStoredStack().copy();
-			returnStack.setCount(getCurrentCapacity());
+			returnStack = getStoredVariant().toStack(getCurrentCapacity());
 		}
 
 		return returnStack;
@@ -194,51 +200,41 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 
 		// Amount of items that can be added before reaching capacity
 		int reminder = maxCapacity - getCurrentCapacity();
-		DefaultedList<ItemStack> optionalShulkerStack = ItemUtils.getBlockEntityStacks(inputStack);
-		if (isLocked() && ItemUtils.canExtractFromCachedShulker(optionalShulkerStack, lockedItemStack) > 0 ) {
-			Pair<Integer, ItemStack> pair = ItemUtils.extractFromShulker(inputStack, optionalShulkerStack, lockedItemStack, reminder);
+		// Only unpack the container when it actually holds the locked item
+		if (isLocked() && ItemUtils.canExtractAnyFromShulker(inputStack, lockedItemStack)) {
+			DefaultedList<ItemStack> shulkerStacks = ItemUtils.getBlockEntityStacks(inputStack);
+			Pair<Integer, ItemStack> pair = ItemUtils.extractFromShulker(inputStack, shulkerStacks, lockedItemStack, reminder);
 			if (pair.getLeft() != 0) {
-				int amount = pair.getLeft();
-				if (storeItemStack.isEmpty()) {
-					storeItemStack = lockedItemStack.copy();
-					amount = amount -1;
-				}
-				addStoredItemCount(amount);
+				addStored(ItemVariant.of(lockedItemStack), pair.getLeft());
 				inputStack = pair.getRight().copy();
 				inventory.setHashChanged();
 			}
 			return inputStack;
 		}
-		if (inputStack.getCount() <= reminder) {
-			// Add full stack
-			if (storeItemStack == ItemStack.EMPTY){
-				// copy input stack into stored if everything is in OUTPUT_SLOT
-				storeItemStack = inputStack.copy();
-			}
-			else {
-				addStoredItemCount(inputStack.getCount());
-			}
-
-			inputStack = ItemStack.EMPTY;
-		} else {
-			// Add only what is needed to reach max capacity
-			if (storeItemStack == ItemStack.EMPTY) {
-				storeItemStack = inputStack.copy();
-				storeItemStack.setCount(reminder);
-			} else {
-				addStoredItemCount(reminder);
-			}
-			inputStack.decrement(reminder);
-		}
 
+		// Add what fits, up to the whole stack
+		int amount = Math.min(inputStack.getCount(), reminder);
+		addStored(ItemVariant.of(inputStack), amount);
 		inventory.setHashChanged();
+
+		if (amount == inputStack.getCount()) {
+			return ItemStack.EMPTY;
+		}
+		inputStack.decrement(amount);
 		return inputStack;
 	}
 
+	private void addStored(ItemVariant variant, long amount) {
+		if (storage.isResourceBlank()) {
+			storage.variant = variant;
+		}
+		storage.amount += amount;
+	}
+
 	// Creative function
 	private void fillToCapacity() {
-		storeItemStack = getStoredStack();
-		storeItemStack.setCount(maxCapacity);
+		storage.variant = getStoredVariant();
+		storage.amount = maxCapacity;
 
 		inventory.setStack(OUTPUT_SLOT, ItemStack.EMPTY);
 	}
@@ -248,7 +244,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 	}
 
 	public int getCurrentCapacity() {
-		return storeItemStack.getCount() + inventory.getStack(OUTPUT_SLOT).getCount();
+		return (int) storage.amount + inventory.getStack(OUTPUT_SLOT).getCount();
 	}
 
 	// MachineBaseBlockEntity
@@ -264,7 +260,8 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		}
 
 		// Fill output slot with goodies when stored has items and output count is less than max stack size
-		if (storeItemStack.getCount() > 0 && inventory.getStack(OUTPUT_SLOT).getCount() < getStoredStack().getMaxCount()) {
+		ItemStack output = inventory.getStack(OUTPUT_SLOT);
+		if (storage.amount > 0 && (output.isEmpty() || output.getCount() < output.getMaxCount())) {
 			populateOutput();
 		}
 
@@ -279,7 +276,7 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		}
 
 		if (inventory.hasChanged()) {
-			syncWithAll();
+			syncFields();
 			inventory.resetHasChanged();
 		}
 	}
@@ -305,14 +302,15 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 			this.type = TRContent.StorageUnit.QUANTUM;
 		}
 
-		storeItemStack = ItemStack.EMPTY;
+		clearStorage();
 
 		if (tagCompound.contains("storedStack")) {
-			storeItemStack = ItemStack.fromNbt(registryLookup, tagCompound.getCompound("storedStack")).orElseThrow();
-		}
-
-		if (!storeItemStack.isEmpty()) {
-			storeItemStack.setCount(Math.min(tagCompound.getInt("storedQuantity"), this.maxCapacity));
+			ItemStack storedStack = ItemStack.fromNbt(registryLookup, tagCompound.getCompound("storedStack")).orElseThrow();
+			int storedQuantity = Math.min(tagCompound.getInt("storedQuantity"), this.maxCapacity);
+			if (!storedStack.isEmpty() && storedQuantity > 0) {
+				storage.variant = ItemVariant.of(storedStack);
+				storage.amount = storedQuantity;
+			}
 		}
 
 		// Renderer only
@@ -331,13 +329,9 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 
 		tagCompound.putString("unitType", this.type.name());
 
-		if (!storeItemStack.isEmpty()) {
-			ItemStack temp = storeItemStack.copy();
-			if (storeItemStack.getCount() > storeItemStack.getMaxCount()) {
-				temp.setCount(storeItemStack.getMaxCount());
-			}
-			tagCompound.put("storedStack", temp.toNbt(registryLookup, new NbtCompound()));
-			tagCompound.putInt("storedQuantity", Math.min(storeItemStack.getCount(), maxCapacity));
+		if (!storage.isResourceBlank()) {
+			tagCompound.put("storedStack", storage.variant.toStack().toNbt(registryLookup, new NbtCompound()));
+			tagCompound.putInt("storedQuantity", (int) Math.min(storage.amount, maxCapacity));
 		} else {
 			tagCompound.putInt("storedQuantity", 0);
 		}
@@ -360,25 +354,16 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 			return;
 		}
 
-		if (storeItemStack != ItemStack.EMPTY) {
-			if (storeItemStack.getMaxCount() == 64) {
+		if (!storage.isResourceBlank()) {
+			ItemStack stack = storage.variant.toStack();
+			int size = stack.getMaxCount();
+			if (size == 64) {
 				// Drop stacks (In one clump, reduce lag)
-				WorldUtils.dropItem(storeItemStack, world, pos);
+				WorldUtils.dropItem(storage.variant.toStack((int) storage.amount), world, pos);
 			} else {
-				int size = storeItemStack.getMaxCount();
-
-				for (int i = 0; i < storeItemStack.getCount() / size; i++) {
-					ItemStack toDrop = storeItemStack.copy();
-					toDrop.setCount(size);
-					WorldUtils.dropItem(toDrop, world, pos);
+				for (long remaining = storage.amount; remaining > 0; remaining -= size) {
+					WorldUtils.dropItem(storage.variant.toStack((int) Math.min(remaining, size)), world, pos);
 				}
-
-				if (storeItemStack.getCount() % size != 0) {
-					ItemStack toDrop = storeItemStack.copy();
-					toDrop.setCount(storeItemStack.getCount() % size);
-					WorldUtils.dropItem(toDrop, world, pos);
-				}
-
 			}
 		}
 
@@ -393,28 +378,33 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		if (inputStack == ItemStack.EMPTY) {
 			return false;
 		}
+
+		//allow shulker bundle extraction when locked
+		if (isLocked() && ItemUtils.canExtractAnyFromShulker(inputStack, lockedItemStack)) {
+			return true;
+		}
+		return isValid(ItemVariant.of(inputStack));
+	}
+
+	private boolean isValid(ItemVariant variant) {
 		// Do not allow player heads into storage due to lag. Fix #2888
-		if (inputStack.getItem() instanceof PlayerHeadItem) {
+		if (variant.getItem() instanceof PlayerHeadItem) {
 			return false;
 		}
 		// do not allow other storage units to avoid NBT overflow. Fix #2580
-		if (inputStack.isIn(TRContent.ItemTags.STORAGE_UNITS)) {
+		if (variant.getItem().getRegistryEntry().isIn(TRContent.ItemTags.STORAGE_UNITS)) {
 			return false;
 		}
 
 		if (isLocked()) {
-			//allow shulker bundle extraction when locked
-			if (ItemUtils.canExtractAnyFromShulker(inputStack, lockedItemStack)) {
-				return true;
-			}
-			return ItemUtils.isItemEqual(lockedItemStack, inputStack, true, true);
+			return variant.matches(lockedItemStack);
 		}
 
 		if (isEmpty()){
 			return true;
 		}
 
-		return ItemUtils.isItemEqual(getStoredStack(), inputStack, true, true);
+		return variant.equals(getStoredVariant());
 	}
 
 	@Override
@@ -473,6 +463,15 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		);
 	}
 
+	@Override
+	protected void configureFieldSync(Syncable.Context context) {
+		// Everything the renderer needs, the inventory is only synced while the GUI is open
+		context.sync(ItemVariant.PACKET_CODEC, () -> storage.variant, variant -> storage.variant = variant);
+		context.sync(PacketCodecs.VAR_LONG, () -> storage.amount, amount -> storage.amount = amount);
+		context.sync(ItemStack.OPTIONAL_PACKET_CODEC, () -> inventory.getStack(OUTPUT_SLOT), stack -> inventory.setStack(OUTPUT_SLOT, stack));
+		context.sync(ItemStack.OPTIONAL_PACKET_CODEC, () -> lockedItemStack, stack -> lockedItemStack = stack.isEmpty() ? ItemStack.EMPTY : stack);
+	}
+
 	// BuiltScreenHandlerProvider
 	@Override
 	public BuiltScreenHandler createScreenHandler(int syncID, final PlayerEntity playerEntity) {
@@ -481,7 +480,8 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 				.slot(INPUT_SLOT, 100, 53)
 				.outputSlot(OUTPUT_SLOT, 140, 53)
 				.sync(PacketCodecs.INTEGER, this::isLockedInt, this::setLockedInt)
-				.sync(PacketCodecs.NBT_COMPOUND, this::getStoredStackNBT, this::setStoredStackFromNBT)
+				.sync(ItemVariant.PACKET_CODEC, () -> storage.variant, variant -> storage.variant = variant)
+				.sync(PacketCodecs.VAR_LONG, () -> storage.amount, amount -> storage.amount = amount)
 				.sync(PacketCodecs.INTEGER, this::getStoredAmount, this::setStoredAmount)
 				.sync(PacketCodecs.INTEGER, this::getMaxCapacity, this::setMaxCapacity)
 				.addInventory().create(this, syncID);
@@ -516,84 +516,95 @@ public class StorageUnitBaseBlockEntity extends MachineBaseBlockEntity implement
 		this.serverCapacity = maxCapacity;
 	}
 
-	public NbtCompound getStoredStackNBT() {
-		NbtCompound tag = new NbtCompound();
-		ItemStack stack = getStoredStack();
-
-		tag.putInt("count", stack.getCount());
+	private SingleSlotStorage<ItemVariant> getSideStorage(@Nullable Direction direction) {
+		// Quick fix to handle null sides. https://github.com/TechReborn/TechReborn/issues/3175
+		final Direction side = direction != null ? direction : Direction.DOWN;
 
-		if (!stack.isEmpty()) {
-			// We are not allowed to serialize empty or large stacks
-			ItemStack singleStack = stack.copy();
-			singleStack.setCount(1);
-			tag.put("item", singleStack.toNbt(world.getRegistryManager(), new NbtCompound()));
+		if (sideStorages[side.getId()] == null) {
+			sideStorages[side.getId()] = new SideStorage(side);
 		}
+		return sideStorages[side.getId()];
+	}
 
-		return tag;
+	public Storage<ItemVariant> getExposedStorage(Direction side) {
+		return new CombinedSlottedStorage<>(List.of(
+				getSideStorage(side),
+				InventoryStorage.of(this, side)
+		));
 	}
 
-	public void setStoredStackFromNBT(NbtCompound tag) {
-		if (!tag.contains("item")) {
-			storeItemStack = ItemStack.EMPTY;
-		} else {
-			storeItemStack = ItemStack.fromNbt(world.getRegistryManager(), tag.getCompound("item")).orElseThrow();
+	/**
+	 * The stored items, besides the output slot. Large amounts are moved in one operation without copying stacks.
+	 */
+	private class StoredItemStorage extends SingleVariantStorage<ItemVariant> {
+		@Override
+		protected ItemVariant getBlankVariant() {
+			return ItemVariant.blank();
+		}
+
+		@Override
+		protected long getCapacity(ItemVariant variant) {
+			// subtract the output slot, which counts towards the capacity
+			return maxCapacity - inventory.getStack(OUTPUT_SLOT).getCount();
+		}
+
+		@Override
+		protected boolean canInsert(ItemVariant variant) {
+			// Same rules as the input slot
+			return isValid(variant);
 		}
 
-		storeItemStack.setCount(tag.getInt("count"));
+		@Override
+		protected void onFinalCommit() {
+			inventory.setHashChanged();
+		}
 	}
 
-	private SlottedStorage<ItemVariant> getInternalStoreStorage(@Nullable Direction direction) {
-		// Quick fix to handle null sides. https://github.com/TechReborn/TechReborn/issues/3175
-		final Direction side = direction != null ? direction : Direction.DOWN;
+	/**
+	 * View of the stored items from one side, applying the slot configuration of that side
+	 */
+	private class SideStorage implements SingleSlotStorage<ItemVariant> {
+		private final Direction side;
 
-		if (internalStoreStorage[side.getId()] == null) {
-			internalStoreStorage[side.getId()] = new SingleStackStorage() {
-				@Override
-				protected ItemStack getStack() {
-					return storeItemStack;
-				}
+		private SideStorage(Direction side) {
+			this.side = side;
+		}
 
-				@Override
-				protected void setStack(ItemStack stack) {
-					if (stack.isEmpty()) {
-						// Ensure we maintain reference equality to EMPTY
-						storeItemStack = ItemStack.EMPTY;
-					} else {
-						storeItemStack = stack;
-					}
-				}
+		@Override
+		public long insert(ItemVariant resource, long maxAmount, TransactionContext transaction) {
+			// The stack is only used to filter crafter inputs, which storage units don't have
+			if (!StorageUnitBaseBlockEntity.super.canInsert(INPUT_SLOT, ItemStack.EMPTY, side)) {
+				return 0;
+			}
+			return storage.insert(resource, maxAmount, transaction);
+		}
 
-				@Override
-				protected int getCapacity(ItemVariant itemVariant) {
-					// subtract capacity of output slot (super capacity is the default capacity)
-					return maxCapacity - super.getCapacity(itemVariant);
-				}
+		@Override
+		public long extract(ItemVariant resource, long maxAmount, TransactionContext transaction) {
+			if (!canExtract(OUTPUT_SLOT, ItemStack.EMPTY, side)) {
+				return 0;
+			}
+			return storage.extract(resource, maxAmount, transaction);
+		}
 
-				@Override
-				protected boolean canInsert(ItemVariant itemVariant) {
-					// Check insertion with the same rules as the input slot
-					return StorageUnitBaseBlockEntity.this.canInsert(INPUT_SLOT, itemVariant.toStack(), side);
-				}
+		@Override
+		public boolean isResourceBlank() {
+			return storage.isResourceBlank();
+		}
 
-				@Override
-				protected boolean canExtract(ItemVariant itemVariant) {
-					// Check extraction with the same rules as the output slot
-					return StorageUnitBaseBlockEntity.this.canExtract(OUTPUT_SLOT, itemVariant.toStack(), side);
-				}
+		@Override
+		public ItemVariant getResource() {
+			return storage.getResource();
+		}
 
-				@Override
-				protected void onFinalCommit() {
-					inventory.setHashChanged();
-				}
-			};
+		@Override
+		public long getAmount() {
+			return storage.getAmount();
 		}
-		return internalStoreStorage[side.getId()];
-	}
 
-	public Storage<ItemVariant> getExposedStorage(Direction side) {
-		return new CombinedSlottedStorage<>(List.of(
-				getInternalStoreStorage(side),
-				InventoryStorage.of(this, side)
-		));
+		@Override
+		public long getCapacity() {
+			return storage.getCapacity();
+		}
 	}
 }
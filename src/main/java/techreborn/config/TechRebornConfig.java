@@ -36,6 +36,9 @@ public class TechRebornConfig {
 	@Config(config = "generators", category = "solarPanelGeneral", key = "internalCapacity", comment = "Multiplier for internal capacity of solar panels (multiplier * day generation rate)")
 	public static int solarInternalCapacityMultiplier = 2000;
 
+	@Config(config = "generators", category = "solarPanelGeneral", key = "solarArrays", comment = "Adjacent solar panels of the same type share their energy and tick as a single generator")
+	public static boolean solarArrays = true;
+
 	@Config(config = "generators", category = "solarPanelBasic", key = "basicDayRate", comment = "Generation rate during day for Basic Solar Panel (Energy per tick)")
 	public static int basicGenerationRateD = 3;
 
@@ -689,6 +692,9 @@ public class TechRebornConfig {
 	@Config(config = "misc", category = "nuke", key = "enabled", comment = "Should the nuke explode, set to false to prevent block damage")
 	public static boolean nukeEnabled = true;
 
+	@Config(config = "misc", category = "nuke", key = "blocksPerTick", comment = "How many blocks the nuke removes per tick, larger explosions are spread over several ticks")
+	public static int nukeBlocksPerTick = 65536;
+
 	@Config(config = "misc", category = "resin_basin", key = "saptime", comment = "How long it takes to harvest one sap (ticks)")
 	public static int sapTimeTicks = 80;
 
@@ -104,6 +104,7 @@ public class EntityNukePrimed extends TntEntity {
 		}
 		RebornExplosion nukeExplosion = new RebornExplosion(getBlockPos(), (ServerWorld)getWorld(), TechRebornConfig.nukeRadius);
 		nukeExplosion.setLivingBase(getOwner());
+		nukeExplosion.setBlocksPerTick(TechRebornConfig.nukeBlocksPerTick);
 		nukeExplosion.explode();
 	}
 
@@ -0,0 +1,105 @@
+/*
+ * This file is part of TechReborn, licensed under the MIT License (MIT).
+ *
+ * Copyright (c) 2020 TechReborn
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in all
+ * copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN THE
+ * SOFTWARE.
+ */
+
+package techreborn.init;
+
+import com.mojang.brigadier.Command;
+import com.mojang.brigadier.context.CommandContext;
+import net.fabricmc.fabric.api.command.v2.CommandRegistrationCallback;
+import net.fabricmc.loader.api.FabricLoader;
+import net.minecraft.server.command.ServerCommandSource;
+import net.minecraft.text.Text;
+import reborncore.common.util.TickProfiler;
+import techreborn.TechReborn;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+import static net.minecraft.server.command.CommandManager.literal;
+
+public class TRCommands {
+
+	private static final DateTimeFormatter FILE_DATE_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd_HH.mm.ss");
+
+	public static void init() {
+		CommandRegistrationCallback.EVENT.register((dispatcher, registryAccess, environment) -> dispatcher.register(
+				literal("techreborn")
+						.then(literal("profile")
+								.requires(source -> source.hasPermissionLevel(3))
+								.executes(TRCommands::profileReport)
+								.then(literal("start").executes(TRCommands::profileStart))
+								.then(literal("stop").executes(TRCommands::profileStop))
+								.then(literal("reset").executes(TRCommands::profileReset))
+								.then(literal("dump").executes(TRCommands::profileDump))
+						)
+		));
+	}
+
+	private static int profileStart(CommandContext<ServerCommandSource> ctx) {
+		TickProfiler.start();
+		ctx.getSource().sendFeedback(() -> Text.literal("Started profiling"), true);
+
+		return Command.SINGLE_SUCCESS;
+	}
+
+	private static int profileStop(CommandContext<ServerCommandSource> ctx) {
+		TickProfiler.stop();
+		ctx.getSource().sendFeedback(() -> Text.literal("Stopped profiling"), true);
+
+		return Command.SINGLE_SUCCESS;
+	}
+
+	private static int profileReset(CommandContext<ServerCommandSource> ctx) {
+		TickProfiler.reset();
+		ctx.getSource().sendFeedback(() -> Text.literal("Cleared profiling data"), true);
+
+		return Command.SINGLE_SUCCESS;
+	}
+
+	private static int profileReport(CommandContext<ServerCommandSource> ctx) {
+		String report = TickProfiler.getReport(5);
+		ctx.getSource().sendFeedback(() -> Text.literal(report.stripTrailing()), false);
+
+		return Command.SINGLE_SUCCESS;
+	}
+
+	private static int profileDump(CommandContext<ServerCommandSource> ctx) {
+		Path path = FabricLoader.getInstance().getGameDir().resolve("techreborn").resolve("profile_" + LocalDateTime.now().format(FILE_DATE_FORMAT) + ".txt");
+
+		try {
+			TickProfiler.dump(path);
+		} catch (IOException e) {
+			TechReborn.LOGGER.error("Failed to write profiling report", e);
+			ctx.getSource().sendError(Text.literal("Failed to write profiling report: " + e.getMessage()));
+			return 0;
+		}
+
+		ctx.getSource().sendFeedback(() -> Text.literal("Wrote profiling report to " + path), false);
+
+		return Command.SINGLE_SUCCESS;
+	}
+
+}